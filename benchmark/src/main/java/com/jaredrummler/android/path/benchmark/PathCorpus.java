@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.path.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Path data used by the benchmarks.
+ */
+final class PathCorpus {
+
+  /** The source of the demo app's SVG enum, which is copied into the benchmark resources by the build. */
+  private static final String DEMO_SVG_RESOURCE = "/com/jaredrummler/android/animatedsvgview/demo/SVG.java";
+
+  private static final Pattern PATH_LITERAL = Pattern.compile("\"([Mm][^\"]*)\"");
+
+  private static final String COMMANDS = "LlHhVvCcSsQqTtAa";
+  private static final int[] ARITY = {2, 2, 1, 1, 1, 1, 6, 6, 4, 4, 4, 4, 2, 2, 7, 7};
+
+  private PathCorpus() {
+  }
+
+  /**
+   * @param name
+   *     "demo" for the paths of the demo app, or "synthetic-N" for a single generated path with N segments.
+   * @return the path data of the corpus.
+   */
+  static String[] load(String name) {
+    if ("demo".equals(name)) {
+      return demo();
+    }
+    if (name.startsWith("synthetic-")) {
+      return new String[]{synthetic(Integer.parseInt(name.substring("synthetic-".length())), 42)};
+    }
+    throw new IllegalArgumentException("Unknown corpus " + name);
+  }
+
+  /**
+   * @return every path string of the demo app's SVG enum.
+   */
+  static String[] demo() {
+    InputStream in = PathCorpus.class.getResourceAsStream(DEMO_SVG_RESOURCE);
+    if (in == null) {
+      throw new IllegalStateException("Missing " + DEMO_SVG_RESOURCE);
+    }
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      Matcher matcher = PATH_LITERAL.matcher(new String(out.toByteArray(), Charset.forName("UTF-8")));
+      List<String> paths = new ArrayList<>();
+      while (matcher.find()) {
+        paths.add(matcher.group(1));
+      }
+      return paths.toArray(new String[paths.size()]);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      try {
+        in.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  /**
+   * Generate a path using every command type, relative and absolute, with coordinates in the style of exported SVGs.
+   *
+   * @param segments
+   *     the number of commands
+   * @param seed
+   *     the seed of the random generator
+   * @return the path data
+   */
+  static String synthetic(int segments, long seed) {
+    Random random = new Random(seed);
+    StringBuilder sb = new StringBuilder(segments * 24);
+    sb.append("M256,256");
+    for (int i = 0; i < segments; i++) {
+      int command = random.nextInt(COMMANDS.length());
+      sb.append(COMMANDS.charAt(command));
+      for (int j = 0; j < ARITY[command]; j++) {
+        if (j > 0) {
+          sb.append(random.nextBoolean() ? ',' : ' ');
+        }
+        if (ARITY[command] == 7 && (j == 3 || j == 4)) {
+          // arc flags
+          sb.append(random.nextInt(2));
+        } else {
+          sb.append(String.format(Locale.US, "%.2f", (random.nextFloat() - 0.5f) * 64));
+        }
+      }
+      if (random.nextInt(50) == 0) {
+        sb.append('z');
+      }
+    }
+    return sb.toString();
+  }
+
+}
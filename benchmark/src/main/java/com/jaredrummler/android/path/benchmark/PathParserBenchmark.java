@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.path.benchmark;
+
+import com.jaredrummler.android.path.PathMetrics;
+import com.jaredrummler.android.path.PathNormalizer;
+import com.jaredrummler.android.path.PathSink;
+import com.jaredrummler.android.path.PathTokenizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the throughput and latency of parsing path data. Run with the GC profiler ({@code -prof gc}, which the
+ * {@code jmh} task adds by default) to report the bytes allocated per operation as {@code gc.alloc.rate.norm}.
+ *
+ * <p>The benchmarks run on a plain JVM and only cover path-core. They can't measure the library's
+ * {@code PackedPathData} or building {@code android.graphics.Path}s, which need the Android framework.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathParserBenchmark {
+
+  @Param({"demo", "synthetic-1000", "synthetic-100000"})
+  public String corpus;
+
+  private String[] mPaths;
+  private BlackholeSink mSink;
+  private PathNormalizer mNormalizer;
+
+  @Setup
+  public void setUp(Blackhole blackhole) {
+    mPaths = PathCorpus.load(corpus);
+    mSink = new BlackholeSink(blackhole);
+    mNormalizer = new PathNormalizer(mSink);
+  }
+
+  /** Split the path data into commands and floats. */
+  @Benchmark
+  public void tokenize(final Blackhole blackhole) {
+    PathTokenizer.CommandHandler handler = new PathTokenizer.CommandHandler() {
+      @Override public void onCommand(char cmd, float[] val, int count) {
+        blackhole.consume(cmd);
+        for (int i = 0; i < count; i++) {
+          blackhole.consume(val[i]);
+        }
+      }
+    };
+    for (String path : mPaths) {
+      PathTokenizer.tokenize(path, handler);
+    }
+  }
+
+  /** Split the path data into commands and normalize them into absolute segments. */
+  @Benchmark
+  public void parse() {
+    for (String path : mPaths) {
+      mNormalizer.reset();
+      PathTokenizer.tokenize(path, mNormalizer);
+    }
+  }
+
+  /** Parse the path data and measure the length of every contour. */
+  @Benchmark
+  public void measure(Blackhole blackhole) {
+    for (String path : mPaths) {
+      blackhole.consume(PathMetrics.measure(path, PathMetrics.DEFAULT_TOLERANCE, true).getMaxContourLength());
+    }
+  }
+
+  /** Consumes every coordinate, so the JIT can't drop any part of the normalization. */
+  private static final class BlackholeSink implements PathSink {
+
+    private final Blackhole mBlackhole;
+
+    BlackholeSink(Blackhole blackhole) {
+      mBlackhole = blackhole;
+    }
+
+    @Override public void moveTo(float x, float y) {
+      mBlackhole.consume(x);
+      mBlackhole.consume(y);
+    }
+
+    @Override public void lineTo(float x, float y) {
+      mBlackhole.consume(x);
+      mBlackhole.consume(y);
+    }
+
+    @Override public void quadTo(float x1, float y1, float x2, float y2) {
+      mBlackhole.consume(x1);
+      mBlackhole.consume(y1);
+      mBlackhole.consume(x2);
+      mBlackhole.consume(y2);
+    }
+
+    @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+      mBlackhole.consume(x1);
+      mBlackhole.consume(y1);
+      mBlackhole.consume(x2);
+      mBlackhole.consume(y2);
+      mBlackhole.consume(x3);
+      mBlackhole.consume(y3);
+    }
+
+    @Override public void close() {
+      mBlackhole.consume(true);
+    }
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Debug;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class AllocationFreeDrawingTest {
+
+  private static final String[] GLYPHS = {
+      "M10,10 L90,10 L90,90 L10,90 Z",
+      "M50,20 C80,20 80,80 50,80 C20,80 20,20 50,20 Z",
+      "M20,50 Q50,0 80,50 T20,50 M30,30 L70,70",
+  };
+
+  @SuppressWarnings("deprecation")
+  @Test public void drawingFromStartToFinishAllocatesNothing() {
+    ManualClock clock = new ManualClock();
+    AnimatedSvgDrawable drawable = new AnimatedSvgDrawable();
+    drawable.setAnimationClock(clock);
+    drawable.setViewportSize(100, 100);
+    drawable.setGlyphStrings(GLYPHS);
+    drawable.setTraceResidueColor(0x32000000);
+    drawable.setTraceColor(Color.BLACK);
+    drawable.setFillColors(new int[]{Color.RED, Color.GREEN, Color.BLUE});
+    drawable.setAllocationFreeDrawing(true);
+    drawable.setBounds(0, 0, 400, 400);
+    Canvas canvas = new Canvas(Bitmap.createBitmap(400, 400, Bitmap.Config.ARGB_8888));
+
+    // Warm up, so that classes are loaded and initialized before anything is counted.
+    drawable.start();
+    drawUntilFinished(drawable, clock, canvas);
+    assertEquals(AnimatedSvgView.STATE_FINISHED, drawable.getAnimationState());
+
+    // start() creates the layers of the run. Every frame drawn after it, up to the finished one, must not allocate.
+    drawable.start();
+    int created = drawable.getDashPathEffectsCreated();
+    Debug.resetThreadAllocCount();
+    Debug.startAllocCounting();
+    try {
+      drawUntilFinished(drawable, clock, canvas);
+    } finally {
+      Debug.stopAllocCounting();
+    }
+    int allocations = Debug.getThreadAllocCount();
+
+    assertEquals(AnimatedSvgView.STATE_FINISHED, drawable.getAnimationState());
+    assertEquals(0, allocations);
+    assertEquals(created, drawable.getDashPathEffectsCreated());
+  }
+
+  private static void drawUntilFinished(AnimatedSvgDrawable drawable, ManualClock clock, Canvas canvas) {
+    for (int frame = 0; frame < 1000 && drawable.getAnimationState() != AnimatedSvgView.STATE_FINISHED; frame++) {
+      drawable.draw(canvas);
+      clock.advance(16);
+    }
+  }
+
+  @Test public void longGlyphsCreateABoundedNumberOfEffects() {
+    DashPathEffectPool pool = new DashPathEffectPool();
+    pool.setMaxSteps(100);
+    assertTrue(pool.prewarm(100000, 10));
+    assertTrue(pool.size() <= 2 * (100 + 3));
+    for (int d = 0; d <= 100000; d += 7) {
+      pool.residue(d, 100000);
+      pool.marker(d, 10, 100000);
+    }
+    assertTrue(pool.size() <= 2 * (100 + 3));
+  }
+
+  @Test public void poolNeverExceedsItsMaximumSize() {
+    DashPathEffectPool pool = new DashPathEffectPool();
+    for (int length = 1; length < 400; length++) {
+      for (int d = 0; d <= length; d++) {
+        pool.residue(d, length);
+      }
+    }
+    assertTrue(pool.size() <= DashPathEffectPool.MAX_SIZE);
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Matrix;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.jaredrummler.android.widget.AnimatedSvgDrawable.GlyphData;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@RunWith(AndroidJUnit4.class)
+public class GlyphRendererTest {
+
+  private static final float DELTA = 1e-4f;
+
+  @Test public void oddAspectSizeScalesUniformlyAndCenters() {
+    GlyphRenderer renderer = new GlyphRenderer();
+    renderer.setSize(300, 100, 100, 100);
+
+    float[] values = new float[9];
+    renderer.getDrawMatrix().getValues(values);
+    assertEquals(1, values[Matrix.MSCALE_X], DELTA);
+    assertEquals(1, values[Matrix.MSCALE_Y], DELTA);
+    assertEquals(100, values[Matrix.MTRANS_X], DELTA);
+    assertEquals(0, values[Matrix.MTRANS_Y], DELTA);
+    assertEquals(1, renderer.getPathScale(), DELTA);
+  }
+
+  @Test public void oddAspectSizeKeepsTheStrokeWidth() {
+    float[][] sizes = {{300, 100}, {100, 300}, {250, 40}, {40, 250}, {200, 200}};
+    for (float[] size : sizes) {
+      GlyphRenderer renderer = new GlyphRenderer();
+      renderer.setTraceStrokeWidth(3);
+      renderer.setSize((int) size[0], (int) size[1], 100, 50);
+      float sx = size[0] / 100;
+      float sy = size[1] / 50;
+
+      // A stroke of the viewport width covers the same number of pixels along both axes.
+      float strokeWidth = renderer.getViewportTraceStrokeWidth();
+      float[] axes = {strokeWidth, 0, 0, strokeWidth};
+      renderer.getDrawMatrix().mapVectors(axes);
+      assertEquals(strokeWidth * Math.min(sx, sy), Math.hypot(axes[0], axes[1]), DELTA);
+      assertEquals(strokeWidth * Math.min(sx, sy), Math.hypot(axes[2], axes[3]), DELTA);
+      assertEquals(3, strokeWidth * Math.min(sx, sy), DELTA);
+    }
+  }
+
+  @Test public void finishedTimeIncludesTheTraceOfTheLastGlyph() {
+    GlyphRenderer renderer = new GlyphRenderer();
+    renderer.setTraceTime(500);
+    renderer.setTraceTimePerGlyph(3000);
+    renderer.setFillStart(1200);
+    renderer.setFillTime(1000);
+    assertEquals(3000, renderer.getTraceEndTime());
+    assertEquals(3000, renderer.getFinishedTime());
+
+    renderer.setTraceTimePerGlyph(400);
+    assertEquals(2200, renderer.getFinishedTime());
+  }
+
+  @Test public void contourMeasuresAreOnlyKeptForSegmentAndContourTracing() {
+    GlyphData[] glyphData = AnimatedSvgDrawable.createGlyphData(new String[]{"M0,0 L10,0 M0,5 L10,5"}, false);
+    GlyphRenderer renderer = new GlyphRenderer();
+    renderer.setGlyphData(glyphData);
+    assertNull(glyphData[0].contourMeasures);
+
+    renderer.setTraceMode(AnimatedSvgView.TRACE_MODE_SEGMENT);
+    assertNotNull(glyphData[0].contourMeasures);
+    assertEquals(2, glyphData[0].contourMeasures.length);
+    renderer.setTraceMode(AnimatedSvgView.TRACE_MODE_CONTOUR);
+    assertNotNull(glyphData[0].contourMeasures);
+
+    // A second renderer sharing the glyphs keeps them measured.
+    GlyphRenderer other = new GlyphRenderer();
+    other.setTraceMode(AnimatedSvgView.TRACE_MODE_SEGMENT);
+    other.setGlyphData(glyphData);
+    renderer.setTraceMode(AnimatedSvgView.TRACE_MODE_DASH);
+    assertNotNull(glyphData[0].contourMeasures);
+    other.setGlyphData(null);
+    assertNull(glyphData[0].contourMeasures);
+  }
+
+}
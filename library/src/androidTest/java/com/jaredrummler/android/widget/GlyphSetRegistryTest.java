@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class GlyphSetRegistryTest {
+
+  private static final String[] GLYPHS = {
+      "M10,10 L90,10 L90,90 L10,90 Z",
+      "M50,20 C80,20 80,80 50,80 C20,80 20,20 50,20 Z",
+  };
+
+  private static AnimatedSvgDrawable createDrawable(GlyphSetRegistry registry) {
+    AnimatedSvgDrawable drawable = new AnimatedSvgDrawable();
+    drawable.setGlyphSetRegistry(registry);
+    drawable.setViewportSize(100, 100);
+    drawable.setGlyphStrings(GLYPHS);
+    drawable.setTraceResidueColor(0x32000000);
+    drawable.setTraceColor(Color.BLACK);
+    drawable.setFillColor(Color.RED);
+    drawable.setBounds(0, 0, 100, 100);
+    return drawable;
+  }
+
+  private static int countDrawnPixels(AnimatedSvgDrawable drawable, Bitmap bitmap) {
+    bitmap.eraseColor(Color.TRANSPARENT);
+    drawable.draw(new Canvas(bitmap));
+    int[] pixels = new int[bitmap.getWidth() * bitmap.getHeight()];
+    bitmap.getPixels(pixels, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight());
+    int drawn = 0;
+    for (int pixel : pixels) {
+      if (Color.alpha(pixel) != 0) {
+        drawn++;
+      }
+    }
+    return drawn;
+  }
+
+  @Test public void hiddenDrawableDoesNotDrawReleasedGlyphs() {
+    GlyphSetRegistry registry = new GlyphSetRegistry();
+    AnimatedSvgDrawable drawable = createDrawable(registry);
+    drawable.setToFinishedFrame();
+    Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+    assertTrue(countDrawnPixels(drawable, bitmap) > 0);
+
+    GlyphSet glyphSet = drawable.getGlyphSet();
+    assertEquals(1, glyphSet.getReferenceCount());
+    drawable.setVisible(false, false);
+    assertEquals(0, glyphSet.getReferenceCount());
+    assertEquals(0, registry.getGlyphSetCount());
+    assertEquals(0, countDrawnPixels(drawable, bitmap));
+
+    drawable.setVisible(true, false);
+    assertSame(glyphSet, drawable.getGlyphSet());
+    assertEquals(1, glyphSet.getReferenceCount());
+    assertEquals(1, registry.getGlyphSetCount());
+    assertTrue(countDrawnPixels(drawable, bitmap) > 0);
+  }
+
+  @Test public void releaseDrawRetainKeepsTheGlyphData() {
+    GlyphSetRegistry registry = new GlyphSetRegistry();
+    GlyphSet other = registry.acquire(GLYPHS, false);
+    AnimatedSvgDrawable drawable = createDrawable(registry);
+    GlyphSet glyphSet = drawable.getGlyphSet();
+    assertSame(other, glyphSet);
+    assertEquals(2, glyphSet.getReferenceCount());
+    AnimatedSvgDrawable.GlyphData[] glyphData = glyphSet.mGlyphData;
+    float totalLength = glyphSet.getTotalLength();
+    drawable.setToFinishedFrame();
+    Bitmap bitmap = Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888);
+    int drawn = countDrawnPixels(drawable, bitmap);
+    assertTrue(drawn > 0);
+
+    // Release every reference while the drawable still has the set.
+    other.release();
+    drawable.setVisible(false, false);
+    assertEquals(0, glyphSet.getReferenceCount());
+    assertEquals(0, registry.getGlyphSetCount());
+    assertEquals(0, countDrawnPixels(drawable, bitmap));
+
+    // The registry builds a new set for the next holder and leaves the released one alone.
+    GlyphSet rebuilt = registry.acquire(GLYPHS, false);
+    assertNotSame(glyphSet, rebuilt);
+
+    drawable.setVisible(true, false);
+    assertSame(glyphSet, drawable.getGlyphSet());
+    assertSame(glyphData, glyphSet.mGlyphData);
+    assertEquals(totalLength, glyphSet.getTotalLength(), 0);
+    for (AnimatedSvgDrawable.GlyphData glyph : glyphData) {
+      assertTrue(glyph.viewportTotalLength > 0);
+      assertFalse(glyph.path.isEmpty());
+    }
+    assertEquals(drawn, countDrawnPixels(drawable, bitmap));
+    rebuilt.release();
+  }
+
+}
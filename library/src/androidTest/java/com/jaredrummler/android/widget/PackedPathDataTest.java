@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.widget;
+
+import android.util.Log;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.jaredrummler.android.path.PathSink;
+import com.jaredrummler.android.widget.PathParser.PathDataNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares packed path data with path data nodes. The retained size and the build time of both forms are written to
+ * the log with the tag "PackedPathDataTest", so they can be reproduced on a device.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PackedPathDataTest {
+
+  private static final String TAG = "PackedPathDataTest";
+
+  private static final String[] GLYPHS = {
+      "M10,10 L90,10 L90,90 L10,90 Z",
+      "M50,20 C80,20 80,80 50,80 C20,80 20,20 50,20 Z",
+      "M20,50 Q50,0 80,50 T20,50 M30,30 L70,70",
+      "m12.5-3.25h4v-2.5l-1.5.75s1,2 3,4a5,5 0 1,0 10,0zV40H0",
+  };
+
+  /** The number of segments of the synthetic path that dominates the measurements. */
+  private static final int SYNTHETIC_SEGMENTS = 20000;
+
+  private static List<String> corpus() {
+    List<String> corpus = new ArrayList<>();
+    for (String glyph : GLYPHS) {
+      corpus.add(glyph);
+    }
+    StringBuilder path = new StringBuilder("M0,0");
+    for (int i = 0; i < SYNTHETIC_SEGMENTS; i++) {
+      float x = (i * 37) % 1000 / 10f;
+      float y = (i * 53) % 1000 / 10f;
+      switch (i % 3) {
+        case 0:
+          path.append('L').append(x).append(',').append(y);
+          break;
+        case 1:
+          path.append('Q').append(y).append(',').append(x).append(' ').append(x).append(',').append(y);
+          break;
+        default:
+          path.append('c').append(1.5f).append(',').append(-2).append(' ').append(x / 10).append(',').append(y / 10)
+              .append(' ').append(-x / 20).append(',').append(y / 20);
+          break;
+      }
+    }
+    corpus.add(path.toString());
+    return corpus;
+  }
+
+  @Test public void packedDataSendsTheSameSegmentsAsNodes() {
+    for (String pathData : corpus()) {
+      RecordingSink nodes = new RecordingSink();
+      PathDataNode.nodesToPath(PathParser.createNodesFromPathData(pathData), nodes);
+      RecordingSink packed = new RecordingSink();
+      PackedPathData.createFromPathData(pathData).toPath(packed);
+      assertEquals(nodes.mSegments, packed.mSegments);
+    }
+  }
+
+  @Test public void packedDataRetainsLessThanNodes() {
+    long nodeBytes = 0;
+    long packedBytes = 0;
+    for (String pathData : corpus()) {
+      nodeBytes += PackedPathData.estimateSizeInBytes(PathParser.createNodesFromPathData(pathData));
+      packedBytes += PackedPathData.createFromPathData(pathData).estimateSizeInBytes();
+    }
+    Log.i(TAG, String.format(Locale.US, "Retained size: %d bytes as nodes, %d bytes packed (%+.0f%%)",
+        nodeBytes, packedBytes, 100.0 * (packedBytes - nodeBytes) / nodeBytes));
+    assertTrue(packedBytes < nodeBytes);
+  }
+
+  @Test public void reportBuildTime() {
+    List<String> corpus = corpus();
+    // Warm up both forms before timing them.
+    buildNodes(corpus, 20);
+    buildPacked(corpus, 20);
+    int iterations = 50;
+    long nodeNanos = buildNodes(corpus, iterations);
+    long packedNanos = buildPacked(corpus, iterations);
+    Log.i(TAG, String.format(Locale.US, "Build time: %.2f ms as nodes, %.2f ms packed",
+        nodeNanos / 1e6 / iterations, packedNanos / 1e6 / iterations));
+  }
+
+  private static long buildNodes(List<String> corpus, int iterations) {
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      for (String pathData : corpus) {
+        PathParser.createNodesFromPathData(pathData);
+      }
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static long buildPacked(List<String> corpus, int iterations) {
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      for (String pathData : corpus) {
+        PackedPathData.createFromPathData(pathData);
+      }
+    }
+    return System.nanoTime() - start;
+  }
+
+  /**
+   * Records every segment, so two forms of a path can be compared exactly.
+   */
+  private static final class RecordingSink implements PathSink {
+
+    final List<String> mSegments = new ArrayList<>();
+
+    @Override public void moveTo(float x, float y) {
+      mSegments.add("M" + x + "," + y);
+    }
+
+    @Override public void lineTo(float x, float y) {
+      mSegments.add("L" + x + "," + y);
+    }
+
+    @Override public void quadTo(float x1, float y1, float x2, float y2) {
+      mSegments.add("Q" + x1 + "," + y1 + " " + x2 + "," + y2);
+    }
+
+    @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+      mSegments.add("C" + x1 + "," + y1 + " " + x2 + "," + y2 + " " + x3 + "," + y3);
+    }
+
+    @Override public void close() {
+      mSegments.add("Z");
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.RectF;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.jaredrummler.android.path.PathMetrics;
+import com.jaredrummler.android.widget.AnimatedSvgDrawable.GlyphData;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the glyph lengths measured by {@link PathMetrics} match {@link PathMeasure}, which measured them
+ * before.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PathMetricsParityTest {
+
+  private static final String[] GLYPHS = {
+      "M10,10 L90,10 L90,90 L10,90 Z",
+      "M10,10 L90,10 L90,90",
+      "M50,20 C80,20 80,80 50,80 C20,80 20,20 50,20 Z",
+      "M20,50 Q50,0 80,50 T20,50 M30,30 L70,70",
+      "M200 100A100 100 0 1 1 0 100A100 100 0 1 1 200 100Z",
+      "M0,0 A1,1 0 0 1 10,0",
+      "m12.5-3.25h4v-2.5l-1.5.75s1,2 3,4a5,5 0 1,0 10,0zV40H0",
+      "M0 0H10Z M5 5 M20 20H30 M40 40",
+      "M3,3 C30,-20 -20,40 40,20 S60,80 10,60",
+  };
+
+  @Test public void glyphLengthsMatchPathMeasure() {
+    for (String pathData : GLYPHS) {
+      GlyphData glyph = AnimatedSvgDrawable.createGlyphData(new String[]{pathData}, false)[0];
+      Path path = PathParser.createPathFromPathData(pathData);
+      List<Float> expected = new ArrayList<>();
+      float expectedLength = 0;
+      PathMeasure pm = new PathMeasure(path, false);
+      do {
+        if (pm.getLength() > 0) {
+          expected.add(pm.getLength());
+        }
+      } while (pm.nextContour());
+      pm.setPath(path, true);
+      do {
+        expectedLength = Math.max(expectedLength, pm.getLength());
+      } while (pm.nextContour());
+
+      assertEquals(pathData, expected.size(), glyph.contourLengths.length);
+      float expectedTotal = 0;
+      for (int i = 0; i < expected.size(); i++) {
+        assertLength(pathData, expected.get(i), glyph.contourLengths[i]);
+        expectedTotal += expected.get(i);
+      }
+      assertLength(pathData, expectedTotal, glyph.viewportTotalLength);
+      assertLength(pathData, expectedLength, glyph.viewportLength);
+    }
+  }
+
+  @Test public void boundsOfLinesMatchComputeBounds() {
+    String[] lines = {"M10,10 L90,10 L90,90 Z", "M0,0 H10 M50,-20", "L10,10 M-5,30 Z"};
+    for (String pathData : lines) {
+      RectF expected = new RectF();
+      PathParser.createPathFromPathData(pathData).computeBounds(expected, true);
+      float[] bounds = new float[4];
+      PathMetrics.measure(pathData, PathMetrics.DEFAULT_TOLERANCE, false).getBounds(bounds);
+      assertEquals(pathData, expected.left, bounds[0], 0);
+      assertEquals(pathData, expected.top, bounds[1], 0);
+      assertEquals(pathData, expected.right, bounds[2], 0);
+      assertEquals(pathData, expected.bottom, bounds[3], 0);
+    }
+  }
+
+  /**
+   * PathMeasure flattens curves to a coarser tolerance, so curved lengths differ by a fraction of a percent.
+   */
+  private static void assertLength(String pathData, float expected, float actual) {
+    assertEquals(pathData, expected, actual, 0.01f + expected * 0.005f);
+  }
+}
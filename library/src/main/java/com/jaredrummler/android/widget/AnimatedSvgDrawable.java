@@ -0,0 +1,1671 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.Picture;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.Drawable;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.TypedValue;
+import android.view.Display;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import androidx.core.view.ViewCompat;
+import com.jaredrummler.android.path.PathMetrics;
+import com.jaredrummler.android.path.PathSink;
+import com.jaredrummler.android.widget.AnimatedSvgView.FillStrategy;
+import com.jaredrummler.android.widget.AnimatedSvgView.OnFrameMetricsListener;
+import com.jaredrummler.android.widget.AnimatedSvgView.OnGlyphsPreparedListener;
+import com.jaredrummler.android.widget.AnimatedSvgView.OnStateChangeListener;
+import com.jaredrummler.android.widget.AnimatedSvgView.State;
+import com.jaredrummler.android.widget.AnimatedSvgView.TraceMode;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.jaredrummler.android.widget.AnimatedSvgView.STATE_FILL_STARTED;
+import static com.jaredrummler.android.widget.AnimatedSvgView.STATE_FINISHED;
+import static com.jaredrummler.android.widget.AnimatedSvgView.STATE_NOT_STARTED;
+import static com.jaredrummler.android.widget.AnimatedSvgView.STATE_TRACE_STARTED;
+
+/**
+ * Traces and fills SVG paths, like {@link AnimatedSvgView}, as a {@link Drawable}. Use it where a dedicated view is
+ * too heavy, e.g. in list items, toolbar icons or compound drawables. The drawable scales the SVG to its bounds and
+ * does not use a view layer. {@link AnimatedSvgView} draws through one of these, so both behave the same.
+ *
+ * <pre>
+ * AnimatedSvgDrawable drawable = new AnimatedSvgDrawable();
+ * drawable.setViewportSize(400, 400);
+ * drawable.setGlyphStrings(glyphStrings);
+ * drawable.setFillColors(fillColors);
+ * drawable.setIntrinsicSize(size, size);
+ * textView.setCompoundDrawablesWithIntrinsicBounds(drawable, null, null, null);
+ * drawable.start();
+ * </pre>
+ */
+public class AnimatedSvgDrawable extends Drawable implements Animatable {
+
+  private static final String TAG = "AnimatedSvgView";
+
+  private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+  /** The minimum number of glyphs each thread should build when glyphs are built in parallel. */
+  private static final int MIN_GLYPHS_PER_THREAD = 8;
+  /** The time an idle worker thread waits for more glyphs before it ends. */
+  private static final long GLYPH_WORKER_KEEP_ALIVE_SECONDS = 10;
+  /** The maximum distance between a curve and the line segments used to measure it, in viewport units. */
+  static final float GLYPH_LENGTH_TOLERANCE = PathMetrics.DEFAULT_TOLERANCE;
+
+  /** Start when the glyphs are ready instead of at a given time. */
+  private static final long NO_START_TIME = Long.MIN_VALUE;
+
+  private static final Interpolator MORPH_INTERPOLATOR = new AccelerateDecelerateInterpolator();
+
+  private static ThreadPoolExecutor sGlyphWorkers;
+
+  private final GlyphRenderer mRenderer = new GlyphRenderer();
+  private float mViewportWidth;
+  private float mViewportHeight;
+  private int mIntrinsicWidth = -1;
+  private int mIntrinsicHeight = -1;
+  private int mAlpha = 255;
+  private ColorFilter mColorFilter;
+  private Paint mLayerPaint;
+  private AnimatedSvgView mHost;
+
+  private GlyphData[] mGlyphData;
+  private GlyphSet mGlyphSet;
+  private boolean mHoldsGlyphSet;
+  private GlyphSetRegistry mGlyphSetRegistry = GlyphSetRegistry.getDefault();
+  private String[] mGlyphStrings;
+  private String[] mParsedGlyphStrings;
+  private int mWidth;
+  private int mHeight;
+  private long mStartTime;
+  private AnimationClock mClock = AnimationClock.FRAME_TIME;
+  private AnimationTicker mTicker;
+  private long mLastTickFrame;
+  private boolean mPrepareGlyphsAsync;
+  private boolean mPrepareGlyphsInParallel;
+  private Executor mGlyphPreparationExecutor;
+  private String[] mPreparingGlyphStrings;
+  private int mPreparationId;
+  private boolean mStartPending;
+  private long mPendingStartTime = NO_START_TIME;
+  private OnGlyphsPreparedListener mOnGlyphsPreparedListener;
+  private Picture mFinishedFrame;
+  private Bitmap mFinishedFrameBitmap;
+  private long mGlyphBuildDurationMillis;
+  private OnFrameMetricsListener mOnFrameMetricsListener;
+  private FrameMetricsRecorder mFrameMetricsRecorder;
+  private float mSimplificationTolerance;
+  private SimplificationStats mSimplificationStats;
+  private GlyphLodCache mSimplifyingLodCache;
+  private float mSimplifyingTolerance;
+  private int mSimplifyingBucket;
+  private GlyphMorph mMorph;
+  private int[] mMorphTraceResidueColors;
+  private int[] mMorphTraceColors;
+  private long mMorphStartTime;
+  private long mMorphDuration;
+  private final Runnable mFinishMorph = new Runnable() {
+    @Override public void run() {
+      finishMorph();
+    }
+  };
+
+  private int mState = STATE_NOT_STARTED;
+  private OnStateChangeListener mOnStateChangeListener;
+
+  public AnimatedSvgDrawable() {
+    mRenderer.setTraceStrokeWidth(
+        TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1, Resources.getSystem().getDisplayMetrics()));
+    mRenderer.setTraceColors(new int[]{Color.BLACK});
+    mRenderer.setTraceResidueColors(new int[]{0x32000000});
+  }
+
+  /**
+   * Set the view that draws this drawable. The view is told when the glyphs or their size change.
+   */
+  void setHost(AnimatedSvgView host) {
+    mHost = host;
+  }
+
+  @Override public void draw(@NonNull Canvas canvas) {
+    Rect bounds = getBounds();
+    if (bounds.isEmpty()) {
+      return;
+    }
+    int saveCount;
+    if (mAlpha < 255 || mColorFilter != null) {
+      if (mLayerPaint == null) {
+        mLayerPaint = new Paint();
+      }
+      mLayerPaint.setAlpha(mAlpha);
+      mLayerPaint.setColorFilter(mColorFilter);
+      saveCount = canvas.saveLayer(bounds.left, bounds.top, bounds.right, bounds.bottom, mLayerPaint,
+          Canvas.ALL_SAVE_FLAG);
+    } else {
+      saveCount = canvas.save();
+    }
+    canvas.translate(bounds.left, bounds.top);
+    drawAnimation(canvas);
+    canvas.restoreToCount(saveCount);
+  }
+
+  private void drawAnimation(Canvas canvas) {
+    if (mMorph != null) {
+      drawMorph(canvas);
+      return;
+    }
+    if (mState == STATE_NOT_STARTED || mGlyphData == null || !mHoldsGlyphSet) {
+      return;
+    }
+
+    if (mState == STATE_FINISHED && drawFinishedFrame(canvas)) {
+      return;
+    }
+
+    // The finished frame is drawn directly if it can't be cached.
+    long t = mState == STATE_FINISHED ? mRenderer.getFinishedTime() : mClock.getTimeMillis() - mStartTime;
+    if (t < 0) {
+      // A staggered start that has not been reached yet. The ticker invalidates the drawable when it is.
+      return;
+    }
+    if (mOnFrameMetricsListener == null) {
+      mRenderer.drawFrame(canvas, t, true);
+    } else {
+      drawFrameWithMetrics(canvas, t);
+    }
+
+    int fillStart = mRenderer.getFillStart();
+    if (t > fillStart && mState < STATE_FILL_STARTED) {
+      changeState(STATE_FILL_STARTED);
+    }
+
+    if (t < mRenderer.getFinishedTime()) {
+      // draw next frame if animation isn't finished. A manual clock only moves when its owner invalidates the drawable
+      // and a ticker invalidates the drawable itself.
+      if (mTicker == null && !mClock.isManual()) {
+        invalidateOnAnimation();
+      }
+    } else {
+      // The finished frame is cached, so the layers are no longer needed.
+      mRenderer.releaseLayers();
+      if (mOnFrameMetricsListener != null && mState != STATE_FINISHED) {
+        mOnFrameMetricsListener.onAnimationFinished(mFrameMetricsRecorder.summarize(mGlyphBuildDurationMillis));
+      }
+      changeState(STATE_FINISHED);
+    }
+  }
+
+  private void drawMorph(Canvas canvas) {
+    long elapsed = mClock.getTimeMillis() - mMorphStartTime;
+    float fraction = mMorphDuration == 0 || elapsed >= mMorphDuration
+        ? 1 : Math.max(0, elapsed) / (float) mMorphDuration;
+    mMorph.draw(canvas, MORPH_INTERPOLATOR.getInterpolation(fraction), mRenderer);
+    if (fraction < 1) {
+      if (mTicker == null && !mClock.isManual()) {
+        invalidateOnAnimation();
+      }
+    } else {
+      // Publishing the target glyphs may change the layer type of the view, which must not happen while drawing.
+      MAIN_HANDLER.removeCallbacks(mFinishMorph);
+      MAIN_HANDLER.post(mFinishMorph);
+    }
+  }
+
+  /**
+   * Invalidate for the next frame. Views are invalidated on the next animation frame because this is called while
+   * drawing.
+   */
+  private void invalidateOnAnimation() {
+    Callback callback = getCallback();
+    if (callback instanceof View) {
+      ViewCompat.postInvalidateOnAnimation((View) callback);
+    } else {
+      invalidateSelf();
+    }
+  }
+
+  /**
+   * Draw a frame and report how long it took to the {@link OnFrameMetricsListener}.
+   */
+  private void drawFrameWithMetrics(Canvas canvas, long t) {
+    int dashPathEffectsCreated = mRenderer.getDashPathEffectsCreated();
+    long startTime = System.nanoTime();
+    mRenderer.drawFrame(canvas, t, true);
+    long duration = System.nanoTime() - startTime;
+    FrameStats frame = mFrameMetricsRecorder.record(t, duration, mRenderer.getStartedGlyphCount(),
+        mRenderer.getDashPathEffectsCreated() - dashPathEffectsCreated, getFrameIntervalMillis());
+    mOnFrameMetricsListener.onFrame(frame);
+  }
+
+  private float getFrameIntervalMillis() {
+    Callback callback = getCallback();
+    Display display = callback instanceof View ? ViewCompat.getDisplay((View) callback) : null;
+    float refreshRate = display != null ? display.getRefreshRate() : 0;
+    return refreshRate >= 1 ? 1000f / refreshRate : GlyphRenderer.DEFAULT_FRAME_INTERVAL_MILLIS;
+  }
+
+  /**
+   * Draw the cached finished frame, recording it first if needed.
+   *
+   * @return {@code false} if the frame can't be cached and must be drawn directly.
+   */
+  private boolean drawFinishedFrame(Canvas canvas) {
+    if (!recordFinishedFrame()) {
+      return false;
+    }
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M && canvas.isHardwareAccelerated()) {
+      // Pictures can't be drawn on a hardware accelerated canvas before Marshmallow. Replay it into a bitmap instead.
+      if (mFinishedFrameBitmap == null) {
+        try {
+          mFinishedFrameBitmap = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+        } catch (OutOfMemoryError e) {
+          Log.w(TAG, "Couldn't allocate the finished frame", e);
+          return false;
+        }
+        new Canvas(mFinishedFrameBitmap).drawPicture(mFinishedFrame);
+      }
+      canvas.drawBitmap(mFinishedFrameBitmap, 0, 0, null);
+    } else {
+      canvas.drawPicture(mFinishedFrame);
+    }
+    return true;
+  }
+
+  /**
+   * Record the finished frame into a {@link Picture} unless it is already recorded.
+   *
+   * @return {@code true} if the finished frame is recorded.
+   */
+  private boolean recordFinishedFrame() {
+    if (mFinishedFrame != null) {
+      return true;
+    }
+    if (mGlyphData == null || !mHoldsGlyphSet || mWidth <= 0 || mHeight <= 0) {
+      return false;
+    }
+    Picture picture = new Picture();
+    mRenderer.drawFrame(picture.beginRecording(mWidth, mHeight), mRenderer.getFinishedTime(), false);
+    picture.endRecording();
+    mFinishedFrame = picture;
+    return true;
+  }
+
+  /**
+   * Draw the frame shown {@code playTimeMillis} milliseconds after the animation started. This does not change the
+   * state of the animation or use any cached layers, so the same time always draws the same frame.
+   *
+   * @param canvas
+   *     The canvas to draw on. The glyphs are scaled to the bounds of this drawable, at the origin of the canvas.
+   * @param playTimeMillis
+   *     The time since the animation started in milliseconds
+   */
+  public void drawFrameAt(@NonNull Canvas canvas, long playTimeMillis) {
+    mRenderer.drawFrame(canvas, playTimeMillis, false);
+  }
+
+  @Override protected void onBoundsChange(Rect bounds) {
+    super.onBoundsChange(bounds);
+    if (bounds.width() == mWidth && bounds.height() == mHeight) {
+      return;
+    }
+    mWidth = bounds.width();
+    mHeight = bounds.height();
+    if (mGlyphData == null || mParsedGlyphStrings != mGlyphStrings) {
+      if (mGlyphStrings != null && mPreparingGlyphStrings != mGlyphStrings) {
+        rebuildGlyphData();
+      }
+    } else {
+      // The parsed paths do not depend on the size of the drawable. Only the matrix they are drawn with needs updating.
+      updateDrawMatrix();
+    }
+  }
+
+  @Override public boolean setVisible(boolean visible, boolean restart) {
+    boolean changed = super.setVisible(visible, restart);
+    if (changed) {
+      if (visible) {
+        // Hold the glyphs again that were released when the drawable was hidden.
+        if (mGlyphSet != null && !mHoldsGlyphSet) {
+          if (mGlyphSet.getRegistry() != null) {
+            mGlyphSet.getRegistry().retain(mGlyphSet);
+          }
+          mHoldsGlyphSet = true;
+          // Draw them again.
+          updateDrawMatrix();
+        }
+        if (restart && isRunning()) {
+          start();
+        } else if (mTicker != null && isRunning()) {
+          mTicker.add(this);
+        }
+      } else {
+        finishMorph();
+        // Let the registry forget the glyphs if nothing else shows them. A released set may be handed to other views
+        // or dropped, so the glyphs are not drawn until the drawable is shown again and holds them again.
+        if (releaseGlyphSet()) {
+          mRenderer.setGlyphData(null);
+          invalidateRenderCaches();
+        }
+        if (mTicker != null) {
+          mTicker.remove(this);
+        }
+      }
+    }
+    return changed;
+  }
+
+  @Override public int getIntrinsicWidth() {
+    return mIntrinsicWidth;
+  }
+
+  @Override public int getIntrinsicHeight() {
+    return mIntrinsicHeight;
+  }
+
+  /**
+   * Set the size the drawable wants to be drawn at, e.g. as a compound drawable. By default the drawable has no
+   * intrinsic size and fills its bounds.
+   *
+   * @param width
+   *     the width in pixels, or -1
+   * @param height
+   *     the height in pixels, or -1
+   */
+  public void setIntrinsicSize(int width, int height) {
+    mIntrinsicWidth = width;
+    mIntrinsicHeight = height;
+  }
+
+  @Override public void setAlpha(int alpha) {
+    if (mAlpha != alpha) {
+      mAlpha = alpha;
+      invalidateSelf();
+    }
+  }
+
+  public int getAlpha() {
+    return mAlpha;
+  }
+
+  @Override public void setColorFilter(ColorFilter colorFilter) {
+    mColorFilter = colorFilter;
+    invalidateSelf();
+  }
+
+  public ColorFilter getColorFilter() {
+    return mColorFilter;
+  }
+
+  @Override public int getOpacity() {
+    return PixelFormat.TRANSLUCENT;
+  }
+
+  /**
+   * Drop the cached finished frame and fill layer. They are rendered again the next time they are needed.
+   */
+  private void invalidateRenderCaches() {
+    mRenderer.releaseLayers();
+    mFinishedFrame = null;
+    if (mFinishedFrameBitmap != null) {
+      mFinishedFrameBitmap.recycle();
+      mFinishedFrameBitmap = null;
+    }
+  }
+
+  /**
+   * If you set the SVG data paths more than once using {@link #setGlyphStrings(String...)} you should call this method
+   * before playing the animation.
+   *
+   * <p>If {@link #setPrepareGlyphsAsync(boolean)} is enabled the glyphs are built on a background thread and
+   * published to the drawable when they are ready.</p>
+   */
+  public void rebuildGlyphData() {
+    if (mPrepareGlyphsAsync) {
+      prepareGlyphDataAsync();
+    } else {
+      prepareGlyphData();
+    }
+  }
+
+  private void prepareGlyphData() {
+    long startTime = SystemClock.elapsedRealtime();
+    GlyphSet glyphSet = createGlyphSet(mGlyphSetRegistry, mGlyphStrings, mPrepareGlyphsInParallel);
+    mPreparationId++;
+    mPreparingGlyphStrings = null;
+    publishGlyphSet(glyphSet, mGlyphStrings, SystemClock.elapsedRealtime() - startTime);
+  }
+
+  private void prepareGlyphDataAsync() {
+    final String[] glyphStrings = mGlyphStrings;
+    final boolean parallel = mPrepareGlyphsInParallel;
+    final GlyphSetRegistry registry = mGlyphSetRegistry;
+    final int preparationId = ++mPreparationId;
+    mPreparingGlyphStrings = glyphStrings;
+    try {
+      getGlyphPreparationExecutor().execute(new Runnable() {
+        @Override public void run() {
+          long startTime = SystemClock.elapsedRealtime();
+          final GlyphSet glyphSet = createGlyphSet(registry, glyphStrings, parallel);
+          final long duration = SystemClock.elapsedRealtime() - startTime;
+          MAIN_HANDLER.post(new Runnable() {
+            @Override public void run() {
+              // Drop the result if the glyphs were rebuilt again while this one was being prepared.
+              if (preparationId == mPreparationId) {
+                mPreparingGlyphStrings = null;
+                publishGlyphSet(glyphSet, glyphStrings, duration);
+              } else {
+                glyphSet.release();
+              }
+            }
+          });
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // Build the glyphs now instead of waiting for a task that will never run.
+      Log.w(TAG, "Glyph preparation was rejected by the executor. Preparing the glyphs synchronously.", e);
+      prepareGlyphData();
+    }
+  }
+
+  private Executor getGlyphPreparationExecutor() {
+    return mGlyphPreparationExecutor != null ? mGlyphPreparationExecutor : AsyncTask.THREAD_POOL_EXECUTOR;
+  }
+
+  /**
+   * Get the shared glyphs for the path data from the registry, or build glyphs for this drawable only if the
+   * registry is {@code null}.
+   */
+  private static GlyphSet createGlyphSet(GlyphSetRegistry registry, String[] glyphStrings, boolean parallel) {
+    if (registry != null) {
+      return registry.acquire(glyphStrings, parallel);
+    }
+    return new GlyphSet(null, glyphStrings, createGlyphData(glyphStrings, parallel));
+  }
+
+  private void publishGlyphSet(GlyphSet glyphSet, String[] glyphStrings, long duration) {
+    releaseGlyphSet();
+    mGlyphSet = glyphSet;
+    mHoldsGlyphSet = true;
+    mGlyphBuildDurationMillis = duration;
+    mGlyphData = glyphSet.mGlyphData;
+    mParsedGlyphStrings = glyphStrings;
+    updateDrawMatrix();
+    if (mOnGlyphsPreparedListener != null) {
+      mOnGlyphsPreparedListener.onGlyphsPrepared(duration);
+    }
+    if (mStartPending) {
+      mStartPending = false;
+      startAt(mPendingStartTime);
+    } else {
+      invalidateSelf();
+    }
+  }
+
+  /**
+   * @return {@code true} if a reference to the glyph set was released.
+   */
+  private boolean releaseGlyphSet() {
+    boolean released = mGlyphSet != null && mHoldsGlyphSet;
+    if (released) {
+      mGlyphSet.release();
+    }
+    mHoldsGlyphSet = false;
+    return released;
+  }
+
+  static GlyphData[] createGlyphData(String[] glyphStrings, boolean parallel) {
+    GlyphData[] glyphData = new GlyphData[glyphStrings.length];
+    int threads = Math.min(Runtime.getRuntime().availableProcessors(), glyphStrings.length / MIN_GLYPHS_PER_THREAD);
+    if (!parallel || threads < 2) {
+      for (int i = 0; i < glyphStrings.length; i++) {
+        glyphData[i] = createGlyphData(glyphStrings[i]);
+      }
+    } else {
+      createGlyphDataInParallel(glyphStrings, glyphData, threads);
+    }
+    return glyphData;
+  }
+
+  /**
+   * Build the glyphs on the calling thread with the help of up to {@code threads - 1} worker threads. Each thread
+   * takes the next glyph that has not been built yet and stores it at the index of its glyph string, so the order of
+   * the glyphs is the same as when they are built sequentially. The calling thread never waits for a worker: workers
+   * that have not started yet find no glyphs left, and glyphs that a worker is still building when the calling
+   * thread runs out of work are built again by the calling thread, whichever finishes first.
+   */
+  private static void createGlyphDataInParallel(final String[] glyphStrings, final GlyphData[] glyphData,
+                                                int threads) {
+    final AtomicInteger nextIndex = new AtomicInteger();
+    final AtomicReferenceArray<GlyphData> results = new AtomicReferenceArray<>(glyphStrings.length);
+    Executor workers = getGlyphWorkers();
+    for (int i = 0; i < threads - 1; i++) {
+      try {
+        workers.execute(new Runnable() {
+          @Override public void run() {
+            try {
+              int index;
+              while ((index = nextIndex.getAndIncrement()) < glyphStrings.length) {
+                results.compareAndSet(index, null, createGlyphData(glyphStrings[index]));
+              }
+            } catch (Throwable e) {
+              // The calling thread builds the glyph itself and reports the error if it happens again.
+              Log.w(TAG, "Couldn't build a glyph on a worker thread", e);
+            }
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        break;
+      }
+    }
+    int i;
+    while ((i = nextIndex.getAndIncrement()) < glyphStrings.length) {
+      results.compareAndSet(i, null, createGlyphData(glyphStrings[i]));
+    }
+    for (i = 0; i < glyphStrings.length; i++) {
+      if (results.get(i) == null) {
+        results.compareAndSet(i, null, createGlyphData(glyphStrings[i]));
+      }
+      glyphData[i] = results.get(i);
+    }
+  }
+
+  private static synchronized Executor getGlyphWorkers() {
+    if (sGlyphWorkers == null) {
+      int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+      ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, GLYPH_WORKER_KEEP_ALIVE_SECONDS,
+          TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        @Override public Thread newThread(@NonNull Runnable r) {
+          Thread thread = new Thread(r, "AnimatedSvgView-glyphs-" + mCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      // Let the threads end when no glyphs are being built.
+      workers.allowCoreThreadTimeOut(true);
+      sGlyphWorkers = workers;
+    }
+    return sGlyphWorkers;
+  }
+
+  /**
+   * Parse and measure a glyph in viewport units. The result does not depend on the size of the drawable.
+   */
+  private static GlyphData createGlyphData(String glyphString) {
+    Path path = new Path();
+    PointCounter counter = new PointCounter(new PathParser.AndroidPathSink(path),
+        new PathMetrics(GLYPH_LENGTH_TOLERANCE, false));
+    if (glyphString != null) {
+      try {
+        PathParser.parsePathData(glyphString, counter);
+      } catch (Exception e) {
+        path.rewind();
+        counter = new PointCounter(null, new PathMetrics(GLYPH_LENGTH_TOLERANCE, false));
+        Log.e(TAG, "Couldn't parse path", e);
+      }
+    }
+    return createGlyphData(path, counter);
+  }
+
+  /**
+   * Create a glyph from a path and the counter that the path was built through. The lengths are measured in
+   * viewport units by the counter's {@link PathMetrics}, so no {@link PathMeasure} is needed.
+   */
+  static GlyphData createGlyphData(Path path, PointCounter counter) {
+    PathMetrics metrics = counter.mMetrics;
+    metrics.finish();
+    GlyphData glyphData = new GlyphData();
+    glyphData.path = path;
+    glyphData.pointCount = counter.mPointCount;
+    // Contours are traced as they are drawn, so open contours are measured without their closing segment. The
+    // longest contour is measured closed, because it sets the length of the dash that traces all contours.
+    glyphData.contourLengths = metrics.getContourLengths();
+    for (int i = 0; i < glyphData.contourLengths.length; i++) {
+      glyphData.viewportLength = Math.max(glyphData.viewportLength, metrics.getClosedContourLength(i));
+      glyphData.viewportTotalLength += glyphData.contourLengths[i];
+    }
+    return glyphData;
+  }
+
+  /**
+   * Update the matrix used to draw the glyphs in the bounds and rescale everything that is measured in pixels. This
+   * does not parse or measure the glyphs again.
+   */
+  private void updateDrawMatrix() {
+    invalidateRenderCaches();
+    mRenderer.setSize(mWidth, mHeight, mViewportWidth, mViewportHeight);
+    // Glyphs released while the drawable is hidden are not drawn until it holds them again.
+    GlyphData[] glyphData = mHoldsGlyphSet ? getGlyphDataForSize() : null;
+    if (glyphData != mRenderer.getGlyphData()) {
+      mRenderer.setGlyphData(glyphData);
+    }
+    if (mHost != null) {
+      mHost.onGlyphDataChanged();
+    }
+  }
+
+  /**
+   * @return the glyphs simplified for the current size if {@link #setSimplificationTolerance(float) simplification}
+   * is enabled, otherwise the original glyphs. If glyphs are {@link #setPrepareGlyphsAsync(boolean) prepared
+   * asynchronously} the original glyphs are returned until the simplified ones are ready.
+   */
+  private GlyphData[] getGlyphDataForSize() {
+    float scale = mRenderer.getPathScale();
+    if (mGlyphData == null || mSimplificationTolerance <= 0 || !(scale > 0)) {
+      mSimplificationStats = null;
+      return mGlyphData;
+    }
+    // The simplified glyphs are shared by every drawable showing the same glyph set.
+    GlyphLodCache lodCache = mGlyphSet.mLodCache;
+    int bucket = GlyphLodCache.bucket(scale);
+    GlyphLodCache.Entry entry = lodCache.get(mSimplificationTolerance, bucket);
+    if (entry == null) {
+      if (mPrepareGlyphsAsync && simplifyGlyphsAsync(lodCache, bucket)) {
+        mSimplificationStats = null;
+        return mGlyphData;
+      }
+      entry = lodCache.build(mSimplificationTolerance, bucket);
+    }
+    mSimplificationStats = lodCache.getStats(entry);
+    return entry.glyphData;
+  }
+
+  /**
+   * Simplify the glyphs on the glyph preparation executor and draw them when they are ready.
+   *
+   * @return {@code false} if the executor rejected the task and the glyphs must be simplified synchronously.
+   */
+  private boolean simplifyGlyphsAsync(final GlyphLodCache lodCache, final int bucket) {
+    final float tolerance = mSimplificationTolerance;
+    if (isSimplifying(lodCache, tolerance, bucket)) {
+      return true;
+    }
+    mSimplifyingLodCache = lodCache;
+    mSimplifyingTolerance = tolerance;
+    mSimplifyingBucket = bucket;
+    try {
+      getGlyphPreparationExecutor().execute(new Runnable() {
+        @Override public void run() {
+          lodCache.build(tolerance, bucket);
+          MAIN_HANDLER.post(new Runnable() {
+            @Override public void run() {
+              // Drop the result if the glyphs, the tolerance or the size changed meanwhile.
+              if (isSimplifying(lodCache, tolerance, bucket)) {
+                mSimplifyingLodCache = null;
+                updateDrawMatrix();
+                invalidateSelf();
+              }
+            }
+          });
+        }
+      });
+      return true;
+    } catch (RejectedExecutionException e) {
+      Log.w(TAG, "Glyph simplification was rejected by the executor. Simplifying the glyphs synchronously.", e);
+      mSimplifyingLodCache = null;
+      return false;
+    }
+  }
+
+  private boolean isSimplifying(GlyphLodCache lodCache, float tolerance, int bucket) {
+    return mSimplifyingLodCache == lodCache && mSimplifyingTolerance == tolerance && mSimplifyingBucket == bucket;
+  }
+
+  /**
+   * @return the number of glyphs that are drawn.
+   */
+  int getGlyphCount() {
+    return mGlyphData != null ? mGlyphData.length : 0;
+  }
+
+  /**
+   * @return the length of all contours of all glyphs in pixels.
+   */
+  float getTotalPathLength() {
+    return mRenderer.getTotalPathLength();
+  }
+
+  /**
+   * Simplify the glyphs for the size they are drawn at. Curves are flattened and vertices that are closer than the
+   * tolerance to the simplified outline are removed, which reduces the work to dash and rasterize SVGs that are drawn
+   * much smaller than their viewport. The simplified glyphs are cached for each power of two of the drawing scale and
+   * shared with every view that shows the same SVG. If glyphs are {@link #setPrepareGlyphsAsync(boolean) prepared
+   * asynchronously} they are also simplified in the background and the original glyphs are drawn meanwhile.
+   *
+   * @param tolerance
+   *     The maximum distance between the original and the simplified glyphs in pixels, or 0 to draw the original
+   *     glyphs. Half a pixel to one pixel is usually not visible.
+   * @see #getSimplificationStats()
+   */
+  public void setSimplificationTolerance(float tolerance) {
+    mSimplificationTolerance = tolerance;
+    updateDrawMatrix();
+  }
+
+  /**
+   * @return the maximum distance between the original and the simplified glyphs in pixels, or 0 if the glyphs are
+   * not simplified.
+   */
+  public float getSimplificationTolerance() {
+    return mSimplificationTolerance;
+  }
+
+  /**
+   * @return how much the glyphs were simplified for the current size, or {@code null} if they are not simplified.
+   */
+  public SimplificationStats getSimplificationStats() {
+    return mSimplificationStats;
+  }
+
+  /**
+   * Set the registry that shares parsed glyphs between views showing the same SVG. Views use
+   * {@link GlyphSetRegistry#getDefault()} unless another registry is set. The new registry is used the next time the
+   * glyphs are built.
+   *
+   * @param registry
+   *     The registry, or {@code null} to parse and measure the glyphs for this drawable only.
+   */
+  public void setGlyphSetRegistry(GlyphSetRegistry registry) {
+    mGlyphSetRegistry = registry;
+  }
+
+  /**
+   * @return the registry that shares the glyphs of this drawable, or {@code null} if they are not shared.
+   */
+  public GlyphSetRegistry getGlyphSetRegistry() {
+    return mGlyphSetRegistry;
+  }
+
+  /**
+   * @return the glyphs drawn by this drawable, or {@code null} if they have not been built yet.
+   */
+  public GlyphSet getGlyphSet() {
+    return mGlyphSet;
+  }
+
+  /**
+   * Guarantee that drawing the animation does not allocate any objects on the heap. Every dash effect a glyph can
+   * request is created up front when the glyph data is built instead of lazily the first time it is drawn, and the
+   * layers of the animation are created when it starts. This uses more memory but avoids garbage collection during
+   * the animation. Long glyphs are traced in steps of a few pixels, at most two per frame of the display the drawable
+   * was started on, and the number of effects is capped, so SVGs with very many or very long glyphs may still create
+   * some effects while drawing.
+   *
+   * @param allocationFreeDrawing
+   *     {@code true} to create all dash effects before the animation starts.
+   */
+  public void setAllocationFreeDrawing(boolean allocationFreeDrawing) {
+    mRenderer.setAllocationFreeDrawing(allocationFreeDrawing);
+  }
+
+  /**
+   * @return the number of dash effects created since this drawable was created.
+   */
+  int getDashPathEffectsCreated() {
+    return mRenderer.getDashPathEffectsCreated();
+  }
+
+  /**
+   * @return {@code true} if all dash effects are created before the animation starts.
+   * @see #setAllocationFreeDrawing(boolean)
+   */
+  public boolean isAllocationFreeDrawing() {
+    return mRenderer.isAllocationFreeDrawing();
+  }
+
+  /**
+   * Set the viewport width and height of the SVG. This can be found in the viewBox in the SVG. This is not the size
+   * of the drawable.
+   *
+   * @param viewportWidth
+   *     the width
+   * @param viewportHeight
+   *     the height
+   */
+  public void setViewportSize(float viewportWidth, float viewportHeight) {
+    mViewportWidth = viewportWidth;
+    mViewportHeight = viewportHeight;
+    updateDrawMatrix();
+    invalidateSelf();
+  }
+
+  /**
+   * Set the SVG path data.
+   *
+   * @param glyphStrings
+   *     The path strings found in the SVG.
+   */
+  public void setGlyphStrings(@NonNull String... glyphStrings) {
+    cancelMorph();
+    mGlyphStrings = glyphStrings;
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set the colors used during tracing the SVG
+   *
+   * @param traceResidueColors
+   *     the colors. Should be the same length as the SVG paths.
+   */
+  public void setTraceResidueColors(@NonNull int[] traceResidueColors) {
+    mRenderer.setTraceResidueColors(traceResidueColors);
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set the colors used to trace the SVG.
+   *
+   * @param traceColors
+   *     The colors. Should be the same length as the SVG paths.
+   */
+  public void setTraceColors(@NonNull int[] traceColors) {
+    mRenderer.setTraceColors(traceColors);
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set the colors for the SVG. This corresponds with each data path.
+   *
+   * @param fillColors
+   *     The colors for each SVG data path.
+   */
+  public void setFillColors(@NonNull int[] fillColors) {
+    mRenderer.setFillColors(fillColors);
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set the color used for tracing. This will be applied to all data paths.
+   *
+   * @param color
+   *     The color
+   */
+  public void setTraceResidueColor(@ColorInt int color) {
+    if (mGlyphStrings == null) {
+      throw new RuntimeException("You need to set the glyphs first.");
+    }
+    int length = mGlyphStrings.length;
+    int[] colors = new int[length];
+    for (int i = 0; i < length; i++) {
+      colors[i] = color;
+    }
+    setTraceResidueColors(colors);
+  }
+
+  /**
+   * Set the color used for tracing. This will be applied to all data paths.
+   *
+   * @param color
+   *     The color
+   */
+  public void setTraceColor(@ColorInt int color) {
+    if (mGlyphStrings == null) {
+      throw new RuntimeException("You need to set the glyphs first.");
+    }
+    int length = mGlyphStrings.length;
+    int[] colors = new int[length];
+    for (int i = 0; i < length; i++) {
+      colors[i] = color;
+    }
+    setTraceColors(colors);
+  }
+
+  /**
+   * Set the color used for the icon. This will apply the color to all SVG data paths.
+   *
+   * @param color
+   *     The color
+   */
+  public void setFillColor(@ColorInt int color) {
+    if (mGlyphStrings == null) {
+      throw new RuntimeException("You need to set the glyphs first.");
+    }
+    int length = mGlyphStrings.length;
+    int[] colors = new int[length];
+    for (int i = 0; i < length; i++) {
+      colors[i] = color;
+    }
+    setFillColors(colors);
+  }
+
+  /**
+   * Set the animation trace time
+   *
+   * @param traceTime
+   *     time in milliseconds
+   */
+  public void setTraceTime(int traceTime) {
+    mRenderer.setTraceTime(traceTime);
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set the time used to trace each glyph
+   *
+   * @param traceTimePerGlyph
+   *     time in milliseconds
+   */
+  public void setTraceTimePerGlyph(int traceTimePerGlyph) {
+    mRenderer.setTraceTimePerGlyph(traceTimePerGlyph);
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set the time at which colors will start being filled after the tracing begins
+   *
+   * @param fillStart
+   *     time in milliseconds
+   */
+  public void setFillStart(int fillStart) {
+    mRenderer.setFillStart(fillStart);
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set the time it takes to fill colors
+   *
+   * @param fillTime
+   *     time in milliseconds
+   */
+  public void setFillTime(int fillTime) {
+    mRenderer.setFillTime(fillTime);
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set the length of the trace marker.
+   *
+   * @param markerLength
+   *     the length in pixels
+   */
+  public void setTraceMarkerLength(float markerLength) {
+    mRenderer.setMarkerLength(markerLength);
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set the width of the trace.
+   *
+   * @param traceStrokeWidth
+   *     the width in pixels
+   */
+  public void setTraceStrokeWidth(float traceStrokeWidth) {
+    mRenderer.setTraceStrokeWidth(traceStrokeWidth);
+    invalidateRenderCaches();
+  }
+
+  /**
+   * Set how glyphs are traced. {@link AnimatedSvgView#TRACE_MODE_DASH} applies a dash effect to the entire path of
+   * each glyph. {@link AnimatedSvgView#TRACE_MODE_SEGMENT} copies only the visible part of each path, which is faster
+   * for complex paths. {@link AnimatedSvgView#TRACE_MODE_CONTOUR} traces each contour of a glyph by its own length, so
+   * glyphs with many subpaths trace evenly. Both keep a measure and a copy of every contour, which are built when
+   * either mode is selected and dropped when the mode returns to {@link AnimatedSvgView#TRACE_MODE_DASH}.
+   *
+   * @param traceMode
+   *     Either {@link AnimatedSvgView#TRACE_MODE_DASH}, {@link AnimatedSvgView#TRACE_MODE_SEGMENT} or
+   *     {@link AnimatedSvgView#TRACE_MODE_CONTOUR}
+   */
+  public void setTraceMode(@TraceMode int traceMode) {
+    mRenderer.setTraceMode(traceMode);
+    invalidateRenderCaches();
+    invalidateSelf();
+  }
+
+  /**
+   * Get how glyphs are traced.
+   *
+   * @return Either {@link AnimatedSvgView#TRACE_MODE_DASH}, {@link AnimatedSvgView#TRACE_MODE_SEGMENT} or
+   * {@link AnimatedSvgView#TRACE_MODE_CONTOUR}
+   */
+  @TraceMode public int getTraceMode() {
+    return mRenderer.getTraceMode();
+  }
+
+  /**
+   * Set how glyphs are filled. {@link AnimatedSvgView#FILL_STRATEGY_PER_GLYPH} draws every glyph on every frame of the
+   * fill. {@link AnimatedSvgView#FILL_STRATEGY_LAYER} renders all filled glyphs into an offscreen bitmap once and fades
+   * the bitmap in, so each frame of the fill is a single draw call. This needs a bitmap the size of the drawable and
+   * blends overlapping translucent glyphs as one layer. If the bitmap can't be allocated the glyphs are filled one by
+   * one.
+   *
+   * @param fillStrategy
+   *     Either {@link AnimatedSvgView#FILL_STRATEGY_PER_GLYPH} or {@link AnimatedSvgView#FILL_STRATEGY_LAYER}
+   */
+  public void setFillStrategy(@FillStrategy int fillStrategy) {
+    mRenderer.setFillStrategy(fillStrategy);
+  }
+
+  /**
+   * Get how glyphs are filled.
+   *
+   * @return Either {@link AnimatedSvgView#FILL_STRATEGY_PER_GLYPH} or {@link AnimatedSvgView#FILL_STRATEGY_LAYER}
+   */
+  @FillStrategy public int getFillStrategy() {
+    return mRenderer.getFillStrategy();
+  }
+
+  /**
+   * Bake the trace residue of every glyph that has finished tracing into an offscreen bitmap. Each glyph is drawn into
+   * the bitmap once, so the cost of a frame depends on the number of glyphs that are still being traced instead of
+   * the total number of glyphs. This needs a bitmap the size of the drawable and is disabled if it can't be allocated.
+   *
+   * @param residueLayerEnabled
+   *     {@code true} to bake finished glyphs into a residue layer.
+   */
+  public void setResidueLayerEnabled(boolean residueLayerEnabled) {
+    mRenderer.setResidueLayerEnabled(residueLayerEnabled);
+  }
+
+  /**
+   * @return {@code true} if finished glyphs are baked into a residue layer.
+   * @see #setResidueLayerEnabled(boolean)
+   */
+  public boolean isResidueLayerEnabled() {
+    return mRenderer.isResidueLayerEnabled();
+  }
+
+  /**
+   * Build the glyph data on a background thread instead of the UI thread. Calls to {@link #start()} made while the
+   * glyphs are being prepared are deferred until the glyphs are ready.
+   *
+   * @param prepareGlyphsAsync
+   *     {@code true} to parse and measure the glyphs on a background thread.
+   * @see #setGlyphPreparationExecutor(Executor)
+   * @see #setOnGlyphsPreparedListener(OnGlyphsPreparedListener)
+   */
+  public void setPrepareGlyphsAsync(boolean prepareGlyphsAsync) {
+    mPrepareGlyphsAsync = prepareGlyphsAsync;
+  }
+
+  /**
+   * Set the executor used to prepare glyphs when {@link #setPrepareGlyphsAsync(boolean)} is enabled. Defaults to
+   * {@link AsyncTask#THREAD_POOL_EXECUTOR}. If the executor rejects a task the glyphs are prepared synchronously.
+   *
+   * @param executor
+   *     The executor or {@code null} to use the default executor.
+   */
+  public void setGlyphPreparationExecutor(Executor executor) {
+    mGlyphPreparationExecutor = executor;
+  }
+
+  /**
+   * Split parsing and measuring the glyphs across multiple threads on multi-core devices. This only has an effect
+   * for SVGs with many paths. Glyphs keep their order and a glyph that can't be parsed is still replaced with an
+   * empty path. The thread that prepares the glyphs builds them as well and never waits for the helper threads, so
+   * a busy device is no slower than preparing them on one thread.
+   *
+   * @param prepareGlyphsInParallel
+   *     {@code true} to build the glyphs on multiple threads.
+   */
+  public void setPrepareGlyphsInParallel(boolean prepareGlyphsInParallel) {
+    mPrepareGlyphsInParallel = prepareGlyphsInParallel;
+  }
+
+  /**
+   * @return {@code true} if glyphs are being prepared on a background thread.
+   */
+  public boolean isPreparingGlyphs() {
+    return mPreparingGlyphStrings != null;
+  }
+
+  /**
+   * Get notified when the glyph data has been built and published to the drawable.
+   *
+   * @param onGlyphsPreparedListener
+   *     The {@link OnGlyphsPreparedListener}
+   */
+  public void setOnGlyphsPreparedListener(OnGlyphsPreparedListener onGlyphsPreparedListener) {
+    mOnGlyphsPreparedListener = onGlyphsPreparedListener;
+  }
+
+  /**
+   * Get notified about the cost of every frame of the animation and a summary when it finishes. Frames are only
+   * measured while a listener is set.
+   *
+   * @param onFrameMetricsListener
+   *     The {@link OnFrameMetricsListener} or {@code null} to stop measuring frames.
+   */
+  public void setOnFrameMetricsListener(OnFrameMetricsListener onFrameMetricsListener) {
+    mOnFrameMetricsListener = onFrameMetricsListener;
+    if (onFrameMetricsListener != null && mFrameMetricsRecorder == null) {
+      mFrameMetricsRecorder = new FrameMetricsRecorder();
+    }
+  }
+
+  /**
+   * Set the clock that drives the animation. Defaults to {@link AnimationClock#FRAME_TIME}. With a
+   * {@link AnimationClock#isManual() manual} clock such as {@link ManualClock} the drawable draws the frame at the time
+   * of the clock whenever it is invalidated and does not schedule any frames by itself.
+   *
+   * @param clock
+   *     The clock
+   */
+  public void setAnimationClock(@NonNull AnimationClock clock) {
+    setTicker(null);
+    mClock = clock;
+  }
+
+  /**
+   * @return the clock that drives the animation.
+   */
+  @NonNull public AnimationClock getAnimationClock() {
+    return mClock;
+  }
+
+  /**
+   * Let a shared {@link AnimationTicker} drive the animation instead of scheduling frames from this drawable. The
+   * ticker also becomes the {@link #setAnimationClock(AnimationClock) clock} of the drawable. Setting another clock
+   * detaches the drawable from the ticker.
+   *
+   * @param ticker
+   *     The ticker, or {@code null} to schedule frames from this drawable again.
+   */
+  public void setAnimationTicker(AnimationTicker ticker) {
+    setTicker(ticker);
+    mClock = ticker != null ? ticker : AnimationClock.FRAME_TIME;
+    if (ticker != null && isRunning() && isVisible()) {
+      ticker.add(this);
+    } else if (ticker == null && isRunning()) {
+      invalidateSelf();
+    }
+  }
+
+  /**
+   * @return the ticker that drives the animation, or {@code null} if the drawable schedules its own frames.
+   */
+  public AnimationTicker getAnimationTicker() {
+    return mTicker;
+  }
+
+  private void setTicker(AnimationTicker ticker) {
+    if (mTicker != null && mTicker != ticker) {
+      mTicker.remove(this);
+    }
+    mTicker = ticker;
+  }
+
+  /**
+   * @return {@code true} if the SVG is being traced, filled or morphed.
+   */
+  @Override public boolean isRunning() {
+    return mMorph != null || mState == STATE_TRACE_STARTED || mState == STATE_FILL_STARTED;
+  }
+
+  /**
+   * @return {@code true} if the drawable is visible and so is the view it is drawn in, if any.
+   */
+  private boolean isShown() {
+    Callback callback = getCallback();
+    return isVisible() && (!(callback instanceof View) || ((View) callback).isShown());
+  }
+
+  /**
+   * Called by the {@link AnimationTicker} once per frame. The drawable is only invalidated if it is shown and the
+   * frame it would draw differs from the one it drew on the last tick.
+   *
+   * @param now
+   *     the time of the frame
+   * @return {@link AnimationTicker#TICK_DONE}, {@link AnimationTicker#TICK_UNCHANGED} or
+   * {@link AnimationTicker#TICK_INVALIDATED}
+   */
+  int onAnimationTick(long now) {
+    if (mMorph != null) {
+      return onMorphTick(now);
+    }
+    if (!isRunning()) {
+      return AnimationTicker.TICK_DONE;
+    }
+    if (mGlyphData == null) {
+      return AnimationTicker.TICK_UNCHANGED;
+    }
+    long frame = getTickFrame(now - mStartTime);
+    if (!isShown()) {
+      // The frame is drawn from the clock when the drawable is shown again, so there is no need to keep ticking once
+      // the animation would be finished.
+      return frame == mRenderer.getFinishedTime() ? AnimationTicker.TICK_DONE : AnimationTicker.TICK_UNCHANGED;
+    }
+    if (frame == mLastTickFrame) {
+      return AnimationTicker.TICK_UNCHANGED;
+    }
+    mLastTickFrame = frame;
+    invalidateSelf();
+    return AnimationTicker.TICK_INVALIDATED;
+  }
+
+  private int onMorphTick(long now) {
+    if (isShown()) {
+      // Every frame of a morph differs from the last one.
+      invalidateSelf();
+      return AnimationTicker.TICK_INVALIDATED;
+    }
+    if (now - mMorphStartTime >= mMorphDuration) {
+      finishMorph();
+      return AnimationTicker.TICK_DONE;
+    }
+    return AnimationTicker.TICK_UNCHANGED;
+  }
+
+  /**
+   * Map the time since the start to a value that only changes when the drawn frame changes. Nothing is drawn before
+   * the start and nothing moves between the end of the trace and the start of the fill, or after the end.
+   */
+  private long getTickFrame(long t) {
+    long finishedTime = mRenderer.getFinishedTime();
+    long traceEndTime = mRenderer.getTraceEndTime();
+    if (t < 0) {
+      return -1;
+    } else if (t >= finishedTime) {
+      return finishedTime;
+    } else if (t >= traceEndTime && t <= mRenderer.getFillStart()) {
+      return traceEndTime;
+    }
+    return t;
+  }
+
+  /**
+   * Start the animation
+   */
+  @Override public void start() {
+    startAt(NO_START_TIME);
+  }
+
+  /**
+   * Start the animation at the given time of the clock, which may be in the future.
+   *
+   * @param startTime
+   *     the start time, or {@link #NO_START_TIME} to start now or when the glyphs are ready.
+   */
+  void startAt(long startTime) {
+    finishMorph();
+    if (isPreparingGlyphs()) {
+      mStartPending = true;
+      mPendingStartTime = startTime;
+      return;
+    }
+    mStartTime = startTime != NO_START_TIME ? startTime : mClock.getTimeMillis();
+    mLastTickFrame = NO_START_TIME;
+    if (mTicker != null) {
+      mTicker.add(this);
+    }
+    // Glyphs baked during a previous run have not been traced yet in this one.
+    mRenderer.releaseResidueLayer();
+    // Trace in steps no coarser than a frame of the display the drawable is shown on.
+    mRenderer.setFrameIntervalMillis(getFrameIntervalMillis());
+    if (mRenderer.isAllocationFreeDrawing()) {
+      mRenderer.prepareLayers();
+    }
+    if (mFrameMetricsRecorder != null) {
+      mFrameMetricsRecorder.reset();
+    }
+    changeState(STATE_TRACE_STARTED);
+    invalidateSelf();
+  }
+
+  /**
+   * Stop the animation and show the finished SVG, like {@link #setToFinishedFrame()}. Does nothing if the animation
+   * is not running.
+   */
+  @Override public void stop() {
+    finishMorph();
+    if (isRunning()) {
+      mStartPending = false;
+      setToFinishedFrame();
+    }
+  }
+
+  /**
+   * Reset the animation
+   */
+  public void reset() {
+    cancelMorph();
+    mStartPending = false;
+    mStartTime = 0;
+    invalidateRenderCaches();
+    changeState(STATE_NOT_STARTED);
+    invalidateSelf();
+  }
+
+  /**
+   * Draw the SVG, skipping any animation. The finished frame is recorded once and replayed on every later draw.
+   */
+  public void setToFinishedFrame() {
+    finishMorph();
+    recordFinishedFrame();
+    changeState(STATE_FINISHED);
+    invalidateSelf();
+  }
+
+  /**
+   * Transform the SVG into other glyphs. The glyphs morph if both have the same number of paths and every pair of
+   * paths has the same commands, e.g. icons exported from the same template. Otherwise the old glyphs fade out while
+   * the new ones fade in. The paths and buffers of the transition are allocated here, so drawing a frame of it does not
+   * allocate. When it ends the new glyphs are shown as the {@link AnimatedSvgView#STATE_FINISHED finished} SVG.
+   *
+   * <p>Each new glyph keeps the trace and trace residue colors of the glyph at the same index. New glyphs past the
+   * last current glyph use the colors of the last current glyph.</p>
+   *
+   * @param glyphStrings
+   *     the path data of the new glyphs
+   * @param fillColors
+   *     the fill color of each new glyph
+   * @param durationMillis
+   *     the duration of the transition
+   * @return {@code true} if the glyphs morph, {@code false} if they cross-fade.
+   * @throws IllegalStateException
+   *     if the current glyphs are not ready
+   * @see #morphTo(String[], int[], int[], int[], long)
+   */
+  public boolean morphTo(@NonNull String[] glyphStrings, @NonNull int[] fillColors, long durationMillis) {
+    return startMorph(glyphStrings, fillColors, resizeColors(mRenderer.getTraceColors(), glyphStrings.length),
+        resizeColors(mRenderer.getTraceResidueColors(), glyphStrings.length), durationMillis);
+  }
+
+  /**
+   * Transform the SVG into other glyphs with their own trace colors. The trace and trace residue colors are applied
+   * when the transition ends, so the SVG can be traced again right after it.
+   *
+   * @param glyphStrings
+   *     the path data of the new glyphs
+   * @param fillColors
+   *     the fill color of each new glyph
+   * @param traceColors
+   *     the trace color of each new glyph
+   * @param traceResidueColors
+   *     the trace residue color of each new glyph
+   * @param durationMillis
+   *     the duration of the transition
+   * @return {@code true} if the glyphs morph, {@code false} if they cross-fade.
+   * @throws IllegalStateException
+   *     if the current glyphs are not ready
+   * @see #morphTo(String[], int[], long)
+   */
+  public boolean morphTo(@NonNull String[] glyphStrings, @NonNull int[] fillColors, @NonNull int[] traceColors,
+      @NonNull int[] traceResidueColors, long durationMillis) {
+    return startMorph(glyphStrings, fillColors, traceColors, traceResidueColors, durationMillis);
+  }
+
+  /**
+   * Start the transition to other glyphs. The trace colors are {@code null} if none were set for the current glyphs.
+   */
+  private boolean startMorph(String[] glyphStrings, int[] fillColors, int[] traceColors,
+      int[] traceResidueColors, long durationMillis) {
+    if (mGlyphData == null || mParsedGlyphStrings != mGlyphStrings || isPreparingGlyphs()) {
+      throw new IllegalStateException("The glyphs are not ready");
+    }
+    if (fillColors.length < glyphStrings.length) {
+      throw new IllegalArgumentException("A fill color is required for each glyph");
+    }
+    if (traceColors != null && traceColors.length < glyphStrings.length) {
+      throw new IllegalArgumentException("A trace color is required for each glyph");
+    }
+    if (traceResidueColors != null && traceResidueColors.length < glyphStrings.length) {
+      throw new IllegalArgumentException("A trace residue color is required for each glyph");
+    }
+    if (durationMillis < 0) {
+      throw new IllegalArgumentException("The duration must not be negative");
+    }
+    finishMorph();
+    mStartPending = false;
+    mMorphTraceColors = traceColors;
+    mMorphTraceResidueColors = traceResidueColors;
+    // The target glyphs are built here so that the transition can start on the next frame.
+    GlyphSet target = createGlyphSet(mGlyphSetRegistry, glyphStrings, mPrepareGlyphsInParallel);
+    mMorph = new GlyphMorph(mGlyphStrings, mGlyphData, mRenderer.getFillColors(), target, glyphStrings, fillColors);
+    mMorphStartTime = mClock.getTimeMillis();
+    mMorphDuration = durationMillis;
+    if (mTicker != null) {
+      mTicker.add(this);
+    }
+    invalidateSelf();
+    return mMorph.canMorph();
+  }
+
+  /**
+   * Copy colors to a new length, repeating the last color for indices past the end.
+   *
+   * @return the resized colors, or {@code null} if there are no colors to copy.
+   */
+  private static int[] resizeColors(int[] colors, int length) {
+    if (colors == null || colors.length == 0) {
+      return null;
+    }
+    int[] resized = Arrays.copyOf(colors, length);
+    for (int i = colors.length; i < length; i++) {
+      resized[i] = colors[colors.length - 1];
+    }
+    return resized;
+  }
+
+  /**
+   * Show the target glyphs of the running transition, if any.
+   */
+  private void finishMorph() {
+    GlyphMorph morph = mMorph;
+    if (morph == null) {
+      return;
+    }
+    mMorph = null;
+    MAIN_HANDLER.removeCallbacks(mFinishMorph);
+    mGlyphStrings = morph.getTargetStrings();
+    mRenderer.setFillColors(morph.getTargetColors());
+    mRenderer.setTraceColors(mMorphTraceColors);
+    mRenderer.setTraceResidueColors(mMorphTraceResidueColors);
+    mMorphTraceColors = null;
+    mMorphTraceResidueColors = null;
+    invalidateRenderCaches();
+    // Drop glyphs that are still being prepared for the old path data.
+    mPreparationId++;
+    mPreparingGlyphStrings = null;
+    publishGlyphSet(morph.getTarget(), mGlyphStrings, 0);
+    changeState(STATE_FINISHED);
+    invalidateSelf();
+  }
+
+  /**
+   * Stop the running transition, if any, without showing the target glyphs.
+   */
+  private void cancelMorph() {
+    if (mMorph != null) {
+      MAIN_HANDLER.removeCallbacks(mFinishMorph);
+      mMorph.release();
+      mMorph = null;
+      mMorphTraceColors = null;
+      mMorphTraceResidueColors = null;
+    }
+  }
+
+  /**
+   * Get the animation state.
+   *
+   * @return Either {@link AnimatedSvgView#STATE_NOT_STARTED},
+   * {@link AnimatedSvgView#STATE_TRACE_STARTED},
+   * {@link AnimatedSvgView#STATE_FILL_STARTED} or
+   * {@link AnimatedSvgView#STATE_FINISHED}
+   */
+  @State public int getAnimationState() {
+    return mState;
+  }
+
+  /**
+   * Get notified about the animation states.
+   *
+   * @param onStateChangeListener
+   *     The {@link OnStateChangeListener}
+   */
+  public void setOnStateChangeListener(OnStateChangeListener onStateChangeListener) {
+    mOnStateChangeListener = onStateChangeListener;
+  }
+
+  private void changeState(@State int state) {
+    if (mState == state) {
+      return;
+    }
+
+    mState = state;
+    if (mOnStateChangeListener != null) {
+      mOnStateChangeListener.onStateChange(state);
+    }
+  }
+
+  static final class GlyphData {
+    /** The path in viewport units */
+    Path path;
+    /** The length of the longest contour in viewport units */
+    float viewportLength;
+    /** The length of each contour in viewport units, measured without closing open contours */
+    float[] contourLengths;
+    /**
+     * A measure of each contour, used to extract the traced segments. Only built while a renderer traces this glyph
+     * by segment or by contour.
+     */
+    PathMeasure[] contourMeasures;
+    /** The number of renderers that use the contour measures, guarded by this glyph */
+    private int contourMeasureUsers;
+    /** The sum of the contour lengths in viewport units */
+    float viewportTotalLength;
+    /** The number of points in the path, used to estimate its size */
+    int pointCount;
+
+    /**
+     * Build the contour measures if this is the first renderer that uses them. Each contour gets its own measure so
+     * that tracing a frame only extracts the visible segments instead of measuring the whole path again.
+     */
+    synchronized void retainContourMeasures() {
+      if (contourMeasureUsers++ > 0) {
+        return;
+      }
+      PathMeasure[] measures = new PathMeasure[contourLengths.length];
+      PathMeasure pm = new PathMeasure(path, false);
+      int contourCount = 0;
+      do {
+        float length = pm.getLength();
+        if (length <= 0) {
+          continue;
+        }
+        Path contour = new Path();
+        pm.getSegment(0, length, contour, true);
+        measures[contourCount++] = new PathMeasure(contour, false);
+      } while (pm.nextContour() && contourCount < measures.length);
+      // The lengths are flattened with another tolerance, so a contour that is too short for PathMeasure may still
+      // be counted. It gets an empty measure.
+      while (contourCount < measures.length) {
+        measures[contourCount++] = new PathMeasure();
+      }
+      contourMeasures = measures;
+    }
+
+    /**
+     * Drop the contour measures once no renderer uses them anymore, so glyphs that are traced with dash effects
+     * don't hold a second copy of their points.
+     */
+    synchronized void releaseContourMeasures() {
+      if (contourMeasureUsers > 0 && --contourMeasureUsers == 0) {
+        contourMeasures = null;
+      }
+    }
+
+    /**
+     * @return a copy with its own path and contour measures that can be drawn on another thread.
+     */
+    GlyphData copy() {
+      GlyphData glyphData = new GlyphData();
+      glyphData.path = new Path(path);
+      glyphData.viewportLength = viewportLength;
+      glyphData.contourLengths = contourLengths;
+      glyphData.viewportTotalLength = viewportTotalLength;
+      glyphData.pointCount = pointCount;
+      return glyphData;
+    }
+  }
+
+
+  /**
+   * Counts the points of a path and measures it while passing it on to another sink.
+   */
+  static final class PointCounter implements PathSink {
+
+    private final PathSink mTarget;
+    final PathMetrics mMetrics;
+    int mPointCount;
+
+    /**
+     * @param target
+     *     the sink that builds the path, or {@code null} to only count and measure it.
+     * @param metrics
+     *     the metrics that measure the path
+     */
+    PointCounter(PathSink target, PathMetrics metrics) {
+      mTarget = target != null ? target : metrics;
+      mMetrics = metrics;
+    }
+
+    @Override public void moveTo(float x, float y) {
+      mTarget.moveTo(x, y);
+      mPointCount++;
+    }
+
+    @Override public void lineTo(float x, float y) {
+      mTarget.lineTo(x, y);
+      mPointCount++;
+    }
+
+    @Override public void quadTo(float x1, float y1, float x2, float y2) {
+      mTarget.quadTo(x1, y1, x2, y2);
+      mPointCount += 2;
+    }
+
+    @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+      mTarget.cubicTo(x1, y1, x2, y2, x3, y3);
+      mPointCount += 3;
+    }
+
+    @Override public void close() {
+      mTarget.close();
+    }
+  }
+
+}
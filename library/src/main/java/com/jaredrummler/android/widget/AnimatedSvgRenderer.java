@@ -0,0 +1,450 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import androidx.annotation.ColorInt;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Renders the frames of the {@link AnimatedSvgView} animation into bitmaps without a view, e.g. to export the
+ * animation as a video or sprite sheet. It takes the same glyphs, viewport, colors and timings as the view.
+ *
+ * <p>{@link #render(float, int, int, FrameSink)} draws frames on a pool of worker threads and passes them to a
+ * {@link FrameSink} in order on the calling thread. Only a fixed number of frames is kept in memory at any time, so
+ * long animations can be streamed to an encoder.</p>
+ */
+public final class AnimatedSvgRenderer {
+
+  /**
+   * Receives rendered frames in order.
+   */
+  public interface FrameSink {
+
+    /**
+     * Called on the thread that called {@link #render(float, int, int, FrameSink)} for every frame in order.
+     *
+     * @param frameNumber
+     *     The number of the frame, starting at 0.
+     * @param playTimeMillis
+     *     The time since the animation started that the frame shows.
+     * @param frame
+     *     The frame. The bitmap is reused for another frame after this method returns.
+     */
+    void onFrame(int frameNumber, long playTimeMillis, @NonNull Bitmap frame);
+  }
+
+  private final GlyphRenderer mRenderer = new GlyphRenderer();
+  private final int mWidth;
+  private final int mHeight;
+  private float mViewportWidth;
+  private float mViewportHeight;
+  private String[] mGlyphStrings;
+  private String[] mParsedGlyphStrings;
+
+  /**
+   * @param width
+   *     The width of the frames in pixels
+   * @param height
+   *     The height of the frames in pixels
+   */
+  public AnimatedSvgRenderer(int width, int height) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Invalid frame size " + width + "x" + height);
+    }
+    mWidth = width;
+    mHeight = height;
+    mViewportWidth = width;
+    mViewportHeight = height;
+    mRenderer.setTraceColors(new int[]{Color.BLACK});
+    mRenderer.setTraceResidueColors(new int[]{0x32000000});
+  }
+
+  /**
+   * Set the viewport width and height of the SVG. This can be found in the viewBox in the SVG.
+   *
+   * @param viewportWidth
+   *     the width
+   * @param viewportHeight
+   *     the height
+   */
+  public void setViewportSize(float viewportWidth, float viewportHeight) {
+    mViewportWidth = viewportWidth;
+    mViewportHeight = viewportHeight;
+    mRenderer.setSize(mWidth, mHeight, viewportWidth, viewportHeight);
+  }
+
+  /**
+   * Set the SVG path data.
+   *
+   * @param glyphStrings
+   *     The path strings found in the SVG.
+   */
+  public void setGlyphStrings(@NonNull String... glyphStrings) {
+    mGlyphStrings = glyphStrings;
+  }
+
+  /**
+   * Set the colors used during tracing the SVG
+   *
+   * @param traceResidueColors
+   *     the colors. Should be the same length as the SVG paths.
+   */
+  public void setTraceResidueColors(@NonNull int[] traceResidueColors) {
+    mRenderer.setTraceResidueColors(traceResidueColors);
+  }
+
+  /**
+   * Set the colors used to trace the SVG.
+   *
+   * @param traceColors
+   *     The colors. Should be the same length as the SVG paths.
+   */
+  public void setTraceColors(@NonNull int[] traceColors) {
+    mRenderer.setTraceColors(traceColors);
+  }
+
+  /**
+   * Set the colors for the SVG. This corresponds with each data path.
+   *
+   * @param fillColors
+   *     The colors for each SVG data path.
+   */
+  public void setFillColors(@NonNull int[] fillColors) {
+    mRenderer.setFillColors(fillColors);
+  }
+
+  /**
+   * Set the color used for tracing. This will be applied to all data paths.
+   *
+   * @param color
+   *     The color
+   */
+  public void setTraceResidueColor(@ColorInt int color) {
+    setTraceResidueColors(fill(color));
+  }
+
+  /**
+   * Set the color used for tracing. This will be applied to all data paths.
+   *
+   * @param color
+   *     The color
+   */
+  public void setTraceColor(@ColorInt int color) {
+    setTraceColors(fill(color));
+  }
+
+  /**
+   * Set the color used for the icon. This will apply the color to all SVG data paths.
+   *
+   * @param color
+   *     The color
+   */
+  public void setFillColor(@ColorInt int color) {
+    setFillColors(fill(color));
+  }
+
+  private int[] fill(int color) {
+    if (mGlyphStrings == null) {
+      throw new RuntimeException("You need to set the glyphs first.");
+    }
+    int[] colors = new int[mGlyphStrings.length];
+    for (int i = 0; i < colors.length; i++) {
+      colors[i] = color;
+    }
+    return colors;
+  }
+
+  /**
+   * Set the animation trace time
+   *
+   * @param traceTime
+   *     time in milliseconds
+   */
+  public void setTraceTime(int traceTime) {
+    mRenderer.setTraceTime(traceTime);
+  }
+
+  /**
+   * Set the time used to trace each glyph
+   *
+   * @param traceTimePerGlyph
+   *     time in milliseconds
+   */
+  public void setTraceTimePerGlyph(int traceTimePerGlyph) {
+    mRenderer.setTraceTimePerGlyph(traceTimePerGlyph);
+  }
+
+  /**
+   * Set the time at which colors will start being filled after the tracing begins
+   *
+   * @param fillStart
+   *     time in milliseconds
+   */
+  public void setFillStart(int fillStart) {
+    mRenderer.setFillStart(fillStart);
+  }
+
+  /**
+   * Set the time it takes to fill colors
+   *
+   * @param fillTime
+   *     time in milliseconds
+   */
+  public void setFillTime(int fillTime) {
+    mRenderer.setFillTime(fillTime);
+  }
+
+  /**
+   * Set the length of the trace marker.
+   *
+   * @param markerLength
+   *     the length in pixels
+   */
+  public void setTraceMarkerLength(float markerLength) {
+    mRenderer.setMarkerLength(markerLength);
+  }
+
+  /**
+   * Set the width of the trace.
+   *
+   * @param traceStrokeWidth
+   *     the width in pixels
+   */
+  public void setTraceStrokeWidth(float traceStrokeWidth) {
+    mRenderer.setTraceStrokeWidth(traceStrokeWidth);
+  }
+
+  /**
+   * Set how glyphs are traced.
+   *
+   * @param traceMode
+   *     Either {@link AnimatedSvgView#TRACE_MODE_DASH}, {@link AnimatedSvgView#TRACE_MODE_SEGMENT} or
+   *     {@link AnimatedSvgView#TRACE_MODE_CONTOUR}
+   */
+  public void setTraceMode(@AnimatedSvgView.TraceMode int traceMode) {
+    mRenderer.setTraceMode(traceMode);
+  }
+
+  /**
+   * @return the length of the animation in milliseconds.
+   */
+  public long getDuration() {
+    return mRenderer.getFinishedTime();
+  }
+
+  /**
+   * @param framesPerSecond
+   *     the frame rate
+   * @return the number of frames the animation has at the given frame rate, including the first and the last frame.
+   */
+  public int getFrameCount(float framesPerSecond) {
+    return (int) Math.floor(getDuration() * framesPerSecond / 1000d) + 1;
+  }
+
+  private static long getFrameTime(int frameNumber, float framesPerSecond) {
+    return Math.round(frameNumber * 1000d / framesPerSecond);
+  }
+
+  /**
+   * Draw the frame shown {@code playTimeMillis} milliseconds after the animation started on the calling thread.
+   *
+   * @param playTimeMillis
+   *     The time since the animation started in milliseconds
+   * @param canvas
+   *     The canvas to draw on. The frame is drawn at the size given to the constructor.
+   */
+  public void renderFrame(long playTimeMillis, @NonNull Canvas canvas) {
+    prepare();
+    mRenderer.drawFrame(canvas, playTimeMillis, false);
+  }
+
+  /**
+   * Clear a bitmap and draw the frame shown {@code playTimeMillis} milliseconds after the animation started into it
+   * on the calling thread.
+   *
+   * @param playTimeMillis
+   *     The time since the animation started in milliseconds
+   * @param bitmap
+   *     A mutable bitmap
+   */
+  public void renderFrame(long playTimeMillis, @NonNull Bitmap bitmap) {
+    bitmap.eraseColor(Color.TRANSPARENT);
+    renderFrame(playTimeMillis, new Canvas(bitmap));
+  }
+
+  /**
+   * Render every frame of the animation with one thread per processor.
+   *
+   * @param framesPerSecond
+   *     The frame rate
+   * @param sink
+   *     Receives the frames in order on the calling thread
+   * @throws InterruptedException
+   *     if the calling thread is interrupted while waiting for a frame
+   * @see #render(float, int, int, FrameSink)
+   */
+  public void render(float framesPerSecond, @NonNull FrameSink sink) throws InterruptedException {
+    int threads = Runtime.getRuntime().availableProcessors();
+    render(framesPerSecond, threads, 2 * threads, sink);
+  }
+
+  /**
+   * Render every frame of the animation on a pool of worker threads. Each worker draws with its own paints, effects
+   * and copies of the paths. Frames are passed to the sink in order on the calling thread.
+   *
+   * @param framesPerSecond
+   *     The frame rate
+   * @param threads
+   *     The number of worker threads
+   * @param maxFramesInFlight
+   *     The number of frame bitmaps. Workers wait for the sink to release a bitmap before rendering more frames, so
+   *     this bounds the memory used to {@code maxFramesInFlight * width * height * 4} bytes.
+   * @param sink
+   *     Receives the frames in order on the calling thread
+   * @throws InterruptedException
+   *     if the calling thread is interrupted while waiting for a frame
+   */
+  public void render(final float framesPerSecond, int threads, int maxFramesInFlight, @NonNull FrameSink sink)
+      throws InterruptedException {
+    if (!(framesPerSecond > 0) || threads < 1 || maxFramesInFlight < 1) {
+      throw new IllegalArgumentException(
+          "Invalid arguments: " + framesPerSecond + " fps, " + threads + " threads, " + maxFramesInFlight
+              + " frames in flight");
+    }
+    prepare();
+    mRenderer.setFrameIntervalMillis(1000 / framesPerSecond);
+    final int frameCount = getFrameCount(framesPerSecond);
+    final BlockingQueue<Bitmap> freeBitmaps = new ArrayBlockingQueue<>(maxFramesInFlight);
+    final List<Bitmap> bitmaps = new ArrayList<>(maxFramesInFlight);
+    for (int i = 0; i < maxFramesInFlight; i++) {
+      Bitmap bitmap = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+      bitmaps.add(bitmap);
+      freeBitmaps.add(bitmap);
+    }
+    final Map<Integer, Bitmap> renderedFrames = new HashMap<>();
+    final AtomicInteger nextFrame = new AtomicInteger();
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    ExecutorService workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private final AtomicInteger mCount = new AtomicInteger();
+
+      @Override public Thread newThread(@NonNull Runnable r) {
+        Thread thread = new Thread(r, "AnimatedSvgRenderer-" + mCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    try {
+      for (int i = 0; i < threads; i++) {
+        // Create the renderers on this thread, while nothing else uses the template.
+        final GlyphRenderer renderer = new GlyphRenderer(mRenderer);
+        workers.execute(new Runnable() {
+          @Override public void run() {
+            Canvas canvas = new Canvas();
+            try {
+              while (error.get() == null) {
+                // Take a bitmap before a frame number, so the earliest frame that hasn't been delivered always has a
+                // bitmap to render into.
+                Bitmap bitmap = freeBitmaps.take();
+                int frame = nextFrame.getAndIncrement();
+                if (frame >= frameCount) {
+                  return;
+                }
+                bitmap.eraseColor(Color.TRANSPARENT);
+                canvas.setBitmap(bitmap);
+                renderer.drawFrame(canvas, getFrameTime(frame, framesPerSecond), false);
+                synchronized (renderedFrames) {
+                  renderedFrames.put(frame, bitmap);
+                  renderedFrames.notifyAll();
+                }
+              }
+            } catch (InterruptedException ignored) {
+              // Rendering was cancelled.
+            } catch (Throwable e) {
+              error.compareAndSet(null, e);
+              synchronized (renderedFrames) {
+                renderedFrames.notifyAll();
+              }
+            }
+          }
+        });
+      }
+
+      for (int frame = 0; frame < frameCount; frame++) {
+        Bitmap bitmap;
+        synchronized (renderedFrames) {
+          while ((bitmap = renderedFrames.remove(frame)) == null && error.get() == null) {
+            renderedFrames.wait();
+          }
+        }
+        if (bitmap == null) {
+          Throwable e = error.get();
+          if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+          } else if (e instanceof Error) {
+            throw (Error) e;
+          }
+          throw new RuntimeException("Couldn't render frame " + frame, e);
+        }
+        sink.onFrame(frame, getFrameTime(frame, framesPerSecond), bitmap);
+        freeBitmaps.put(bitmap);
+      }
+    } finally {
+      workers.shutdownNow();
+      if (workers.awaitTermination(1, TimeUnit.MINUTES)) {
+        for (Bitmap bitmap : bitmaps) {
+          bitmap.recycle();
+        }
+      }
+    }
+  }
+
+  /**
+   * Parse and measure the glyphs unless they haven't changed since the last frame.
+   *
+   * @throws IllegalStateException
+   *     if the glyphs or their colors are missing.
+   */
+  private void prepare() {
+    if (mGlyphStrings == null) {
+      throw new IllegalStateException("You need to set the glyphs first.");
+    }
+    if (mParsedGlyphStrings != mGlyphStrings) {
+      mRenderer.setGlyphData(AnimatedSvgDrawable.createGlyphData(mGlyphStrings, true));
+      mRenderer.setSize(mWidth, mHeight, mViewportWidth, mViewportHeight);
+      mParsedGlyphStrings = mGlyphStrings;
+    }
+    mRenderer.checkColors();
+  }
+
+}
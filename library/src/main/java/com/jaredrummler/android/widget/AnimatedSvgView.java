@@ -17,33 +17,27 @@
 
 package com.jaredrummler.android.widget;
 
-import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.DashPathEffect;
-import android.graphics.Matrix;
-import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.PathMeasure;
-import android.graphics.PointF;
-import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.os.AsyncTask;
 import android.os.Build;
 import androidx.annotation.ColorInt;
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
-import androidx.core.view.ViewCompat;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.util.TypedValue;
 import android.view.View;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.Interpolator;
+import java.util.concurrent.Executor;
 import com.jaredrummler.android.animatedsvgview.R;
 
 /**
  * Animated SVG Drawing for Android
+ *
+ * <p>The view hosts an {@link AnimatedSvgDrawable} that does the tracing and filling, and adds sizing from the
+ * viewport's aspect ratio and a {@link #setLayerStrategy(int) layer strategy}.</p>
  */
 public class AnimatedSvgView extends View {
 
@@ -56,37 +50,41 @@ public class AnimatedSvgView extends View {
   /** The animation has finished */
   public static final int STATE_FINISHED = 3;
 
-  private static final String TAG = "AnimatedSvgView";
-
-  private static final Interpolator INTERPOLATOR = new DecelerateInterpolator();
-
-  private static float constrain(float min, float max, float v) {
-    return Math.max(min, Math.min(max, v));
-  }
-
-  private int mTraceTime = 2000;
-  private int mTraceTimePerGlyph = 1000;
-  private int mFillStart = 1200;
-  private int mFillTime = 1000;
-  private int[] mTraceResidueColors;
-  private int[] mTraceColors;
-  private float mViewportWidth;
-  private float mViewportHeight;
-  private PointF mViewport = new PointF(mViewportWidth, mViewportHeight);
+  /** Trace glyphs by applying a dash effect to the entire path */
+  public static final int TRACE_MODE_DASH = 0;
+  /** Trace glyphs by extracting the visible segments of each path into reusable paths */
+  public static final int TRACE_MODE_SEGMENT = 1;
+  /** Trace every contour of a glyph over the same time, so contours of different lengths finish together */
+  public static final int TRACE_MODE_CONTOUR = 2;
+
+  /** Fill each glyph with its own draw call on every frame of the fill */
+  public static final int FILL_STRATEGY_PER_GLYPH = 0;
+  /** Render the filled glyphs into a layer once and fade the layer in */
+  public static final int FILL_STRATEGY_LAYER = 1;
+
+  /** Choose between a software layer and no layer based on the glyphs and the size of the view. The default. */
+  public static final int LAYER_STRATEGY_AUTO = 0;
+  /** Rasterize the view into a software layer */
+  public static final int LAYER_STRATEGY_SOFTWARE = 1;
+  /** Render the view into a hardware layer */
+  public static final int LAYER_STRATEGY_HARDWARE = 2;
+  /** Draw the view without a layer */
+  public static final int LAYER_STRATEGY_NONE = 3;
+
+  /** {@link #LAYER_STRATEGY_AUTO} uses a software layer for at least this many glyphs. */
+  private static final int AUTO_SOFTWARE_LAYER_MIN_GLYPHS = 16;
+  /** {@link #LAYER_STRATEGY_AUTO} uses a software layer if the traced length per pixel of the view is at least this. */
+  private static final float AUTO_SOFTWARE_LAYER_MIN_DENSITY = 0.05f;
+  /** {@link #LAYER_STRATEGY_AUTO} never uses a software layer for views larger than this many pixels. */
+  private static final long AUTO_SOFTWARE_LAYER_MAX_AREA = 2048 * 2048;
+
+  private final AnimatedSvgDrawable mDrawable = new AnimatedSvgDrawable();
   private float aspectRatioWidth = 1;
   private float aspectRatioHeight = 1;
-
-  private Paint mFillPaint;
-  private int[] mFillColors;
-  private GlyphData[] mGlyphData;
-  private String[] mGlyphStrings;
-  private float mMarkerLength;
   private int mWidth;
   private int mHeight;
-  private long mStartTime;
-
-  private int mState = STATE_NOT_STARTED;
-  private OnStateChangeListener mOnStateChangeListener;
+  private int mLayerStrategy = LAYER_STRATEGY_AUTO;
+  private LayerDecision mLayerDecision;
 
   public AnimatedSvgView(Context context) {
     super(context);
@@ -104,28 +102,23 @@ public class AnimatedSvgView extends View {
   }
 
   private void init(Context context, AttributeSet attrs) {
-    mFillPaint = new Paint();
-    mFillPaint.setAntiAlias(true);
-    mFillPaint.setStyle(Paint.Style.FILL);
-
-    mTraceColors = new int[1];
-    mTraceColors[0] = Color.BLACK;
-    mTraceResidueColors = new int[1];
-    mTraceResidueColors[0] = 0x32000000;
+    mDrawable.setHost(this);
+    mDrawable.setCallback(this);
 
     if (attrs != null) {
       TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.AnimatedSvgView);
-      mViewportWidth = a.getInt(R.styleable.AnimatedSvgView_animatedSvgImageSizeX, 512);
-      aspectRatioWidth = a.getInt(R.styleable.AnimatedSvgView_animatedSvgImageSizeX, 512);
-      mViewportHeight = a.getInt(R.styleable.AnimatedSvgView_animatedSvgImageSizeY, 512);
-      aspectRatioHeight = a.getInt(R.styleable.AnimatedSvgView_animatedSvgImageSizeY, 512);
-      mTraceTime = a.getInt(R.styleable.AnimatedSvgView_animatedSvgTraceTime, 2000);
-      mTraceTimePerGlyph = a.getInt(R.styleable.AnimatedSvgView_animatedSvgTraceTimePerGlyph, 1000);
-      mFillStart = a.getInt(R.styleable.AnimatedSvgView_animatedSvgFillStart, 1200);
-      mFillTime = a.getInt(R.styleable.AnimatedSvgView_animatedSvgFillTime, 1000);
+      float viewportWidth = a.getInt(R.styleable.AnimatedSvgView_animatedSvgImageSizeX, 512);
+      float viewportHeight = a.getInt(R.styleable.AnimatedSvgView_animatedSvgImageSizeY, 512);
+      aspectRatioWidth = viewportWidth;
+      aspectRatioHeight = viewportHeight;
+      mDrawable.setViewportSize(viewportWidth, viewportHeight);
+      mDrawable.setTraceTime(a.getInt(R.styleable.AnimatedSvgView_animatedSvgTraceTime, 2000));
+      mDrawable.setTraceTimePerGlyph(a.getInt(R.styleable.AnimatedSvgView_animatedSvgTraceTimePerGlyph, 1000));
+      mDrawable.setFillStart(a.getInt(R.styleable.AnimatedSvgView_animatedSvgFillStart, 1200));
+      mDrawable.setFillTime(a.getInt(R.styleable.AnimatedSvgView_animatedSvgFillTime, 1000));
       int traceMarkerLength = a.getInt(R.styleable.AnimatedSvgView_animatedSvgTraceMarkerLength, 16);
-      mMarkerLength =
-          TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, traceMarkerLength, getResources().getDisplayMetrics());
+      mDrawable.setTraceMarkerLength(
+          TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, traceMarkerLength, getResources().getDisplayMetrics()));
       int glyphStringsId = a.getResourceId(R.styleable.AnimatedSvgView_animatedSvgGlyphStrings, 0);
       int traceResidueColorsId = a.getResourceId(R.styleable.AnimatedSvgView_animatedSvgTraceResidueColors, 0);
       int traceColorsId = a.getResourceId(R.styleable.AnimatedSvgView_animatedSvgTraceColors, 0);
@@ -147,25 +140,27 @@ public class AnimatedSvgView extends View {
       if (fillColorsId != 0) {
         setFillColors(getResources().getIntArray(fillColorsId));
       }
-
-      mViewport = new PointF(mViewportWidth, mViewportHeight);
     }
 
-    // Note: using a software layer here is an optimization. This view works with hardware accelerated rendering but
-    // every time a path is modified (when the dash path effect is modified), the graphics pipeline will rasterize
-    // the path again in a new texture. Since we are dealing with dozens of paths, it is much more efficient to
-    // rasterize the entire view into a single re-usable texture instead. Ideally this should be toggled using a
-    // heuristic based on the number and or dimensions of paths to render.
-    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
-      setLayerType(LAYER_TYPE_SOFTWARE, null);
-    }
+    applyLayerStrategy();
+  }
+
+  @Override protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    mDrawable.setVisible(true, false);
+  }
+
+  @Override protected void onDetachedFromWindow() {
+    super.onDetachedFromWindow();
+    // Releases the shared glyphs and leaves the ticker. The drawable takes them back when the view is attached again.
+    mDrawable.setVisible(false, false);
   }
 
   @Override protected void onSizeChanged(int w, int h, int oldw, int oldh) {
     super.onSizeChanged(w, h, oldw, oldh);
     mWidth = w;
     mHeight = h;
-    rebuildGlyphData();
+    mDrawable.setBounds(0, 0, w, h);
   }
 
   @Override protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
@@ -192,97 +187,209 @@ public class AnimatedSvgView extends View {
         MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
   }
 
-  @SuppressLint("DrawAllocation")
   @Override
   protected void onDraw(Canvas canvas) {
     super.onDraw(canvas);
-    if (mState == STATE_NOT_STARTED || mGlyphData == null) {
-      return;
-    }
-
-    long t = System.currentTimeMillis() - mStartTime;
-
-    // Draw outlines (starts as traced)
-    for (int i = 0; i < mGlyphData.length; i++) {
-      float phase = constrain(0, 1,
-          (t - (mTraceTime - mTraceTimePerGlyph) * i * 1f / mGlyphData.length) * 1f / mTraceTimePerGlyph);
-      float distance = INTERPOLATOR.getInterpolation(phase) * mGlyphData[i].length;
-      mGlyphData[i].paint.setColor(mTraceResidueColors[i]);
-      mGlyphData[i].paint.setPathEffect(new DashPathEffect(
-          new float[]{distance, mGlyphData[i].length}, 0));
-      canvas.drawPath(mGlyphData[i].path, mGlyphData[i].paint);
-
-      mGlyphData[i].paint.setColor(mTraceColors[i]);
-      mGlyphData[i].paint.setPathEffect(new DashPathEffect(
-          new float[]{0, distance, phase > 0 ? mMarkerLength : 0, mGlyphData[i].length}, 0));
-      canvas.drawPath(mGlyphData[i].path, mGlyphData[i].paint);
-    }
+    mDrawable.draw(canvas);
+  }
 
-    if (t > mFillStart) {
-      if (mState < STATE_FILL_STARTED) {
-        changeState(STATE_FILL_STARTED);
-      }
+  @Override protected boolean verifyDrawable(@NonNull Drawable who) {
+    return who == mDrawable || super.verifyDrawable(who);
+  }
 
-      // If after fill start, draw fill
-      float phase = constrain(0, 1, (t - mFillStart) * 1f / mFillTime);
-      for (int i = 0; i < mGlyphData.length; i++) {
-        GlyphData glyphData = mGlyphData[i];
-        int fillColor = mFillColors[i];
-        int a = (int) (phase * ((float) Color.alpha(fillColor) / (float) 255) * 255);
-        int r = Color.red(fillColor);
-        int g = Color.green(fillColor);
-        int b = Color.blue(fillColor);
-        mFillPaint.setARGB(a, r, g, b);
-        canvas.drawPath(glyphData.path, mFillPaint);
-      }
-    }
+  /**
+   * @return the drawable that traces and fills the SVG. Its bounds are managed by this view.
+   */
+  @NonNull public AnimatedSvgDrawable getDrawable() {
+    return mDrawable;
+  }
 
-    if (t < mFillStart + mFillTime) {
-      // draw next frame if animation isn't finished
-      ViewCompat.postInvalidateOnAnimation(this);
-    } else {
-      changeState(STATE_FINISHED);
-    }
+  /**
+   * Draw the frame shown {@code playTimeMillis} milliseconds after the animation started. This does not change the
+   * state of the animation or use any cached layers, so the same time always draws the same frame.
+   *
+   * @param canvas
+   *     The canvas to draw on. The glyphs are scaled to the size of this view.
+   * @param playTimeMillis
+   *     The time since the animation started in milliseconds
+   */
+  public void drawFrameAt(@NonNull Canvas canvas, long playTimeMillis) {
+    mDrawable.drawFrameAt(canvas, playTimeMillis);
   }
 
   /**
    * If you set the SVG data paths more than once using {@link #setGlyphStrings(String...)} you should call this method
    * before playing the animation.
+   *
+   * <p>If {@link #setPrepareGlyphsAsync(boolean)} is enabled the glyphs are built on a background thread and
+   * published to the view when they are ready.</p>
    */
-  @SuppressWarnings("SuspiciousNameCombination")
   public void rebuildGlyphData() {
+    mDrawable.rebuildGlyphData();
+  }
 
-    float X = mWidth / mViewport.x;
-    float Y = mHeight / mViewport.y;
-
-    Matrix scaleMatrix = new Matrix();
-    RectF outerRect = new RectF(X, X, Y, Y);
-    scaleMatrix.setScale(X, Y, outerRect.centerX(), outerRect.centerY());
-
-    mGlyphData = new GlyphData[mGlyphStrings.length];
-    for (int i = 0; i < mGlyphStrings.length; i++) {
-      mGlyphData[i] = new GlyphData();
-      try {
-        mGlyphData[i].path = PathParser.createPathFromPathData(mGlyphStrings[i]);
-        mGlyphData[i].path.transform(scaleMatrix);
-      } catch (Exception e) {
-        mGlyphData[i].path = new Path();
-        Log.e(TAG, "Couldn't parse path", e);
-      }
-      PathMeasure pm = new PathMeasure(mGlyphData[i].path, true);
-      while (true) {
-        mGlyphData[i].length = Math.max(mGlyphData[i].length, pm.getLength());
-        if (!pm.nextContour()) {
-          break;
-        }
-      }
-      mGlyphData[i].paint = new Paint();
-      mGlyphData[i].paint.setStyle(Paint.Style.STROKE);
-      mGlyphData[i].paint.setAntiAlias(true);
-      mGlyphData[i].paint.setColor(Color.WHITE);
-      mGlyphData[i].paint.setStrokeWidth(
-          TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 1, getResources().getDisplayMetrics()));
+  /**
+   * Called by the drawable when the glyphs or the scale they are drawn at change.
+   */
+  void onGlyphDataChanged() {
+    applyLayerStrategy();
+  }
+
+  /**
+   * Apply the layer type chosen by the {@link #setLayerStrategy(int) layer strategy}.
+   *
+   * <p>Note: using a software layer is an optimization for SVGs with many or long paths. This view works with hardware
+   * accelerated rendering but every time a path is modified (when the dash path effect is modified), the graphics
+   * pipeline will rasterize the path again in a new texture. With dozens of paths it is much more efficient to
+   * rasterize the entire view into a single re-usable texture instead. For small SVGs the software layer only costs a
+   * bitmap the size of the view and CPU rasterization, so {@link #LAYER_STRATEGY_AUTO} draws them without a layer.</p>
+   *
+   * <p>{@link #LAYER_STRATEGY_AUTO} never picks a hardware layer. A hardware layer only pays off when the view is
+   * invalidated less often than it is composited, e.g. while it is moved or faded. While the glyphs are traced the
+   * view is invalidated on every frame, so a hardware layer is redrawn on every frame as well. That adds an offscreen
+   * pass and still rasterizes every changed path into a new texture. Use {@link #LAYER_STRATEGY_HARDWARE} to animate
+   * the view itself after the glyphs are drawn.</p>
+   */
+  private void applyLayerStrategy() {
+    int glyphCount = mDrawable.getGlyphCount();
+    float totalPathLength = mDrawable.getTotalPathLength();
+    long viewArea = (long) mWidth * mHeight;
+
+    int layerType;
+    switch (mLayerStrategy) {
+      case LAYER_STRATEGY_SOFTWARE:
+        layerType = LAYER_TYPE_SOFTWARE;
+        break;
+      case LAYER_STRATEGY_HARDWARE:
+        layerType = LAYER_TYPE_HARDWARE;
+        break;
+      case LAYER_STRATEGY_NONE:
+        layerType = LAYER_TYPE_NONE;
+        break;
+      default:
+        boolean complex = glyphCount >= AUTO_SOFTWARE_LAYER_MIN_GLYPHS
+            || viewArea > 0 && totalPathLength / viewArea >= AUTO_SOFTWARE_LAYER_MIN_DENSITY;
+        layerType = complex && viewArea <= AUTO_SOFTWARE_LAYER_MAX_AREA ? LAYER_TYPE_SOFTWARE : LAYER_TYPE_NONE;
+        break;
     }
+
+    mLayerDecision = new LayerDecision(mLayerStrategy, layerType, glyphCount, totalPathLength, viewArea);
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB && getLayerType() != layerType) {
+      setLayerType(layerType, null);
+    }
+  }
+
+  /**
+   * Set how the view is composited. {@link #LAYER_STRATEGY_AUTO} (the default) chooses between a software layer and
+   * no layer based on the number of glyphs, their length and the size of the view. SVGs with many or long paths get
+   * a software layer and small icons are drawn without one. {@link #LAYER_STRATEGY_SOFTWARE},
+   * {@link #LAYER_STRATEGY_HARDWARE} and {@link #LAYER_STRATEGY_NONE} apply the layer type as is.
+   *
+   * @param layerStrategy
+   *     One of {@link #LAYER_STRATEGY_AUTO}, {@link #LAYER_STRATEGY_SOFTWARE}, {@link #LAYER_STRATEGY_HARDWARE} or
+   *     {@link #LAYER_STRATEGY_NONE}
+   * @see #getLayerDecision()
+   */
+  public void setLayerStrategy(@LayerStrategy int layerStrategy) {
+    mLayerStrategy = layerStrategy;
+    applyLayerStrategy();
+  }
+
+  /**
+   * Get how the view is composited.
+   *
+   * @return One of {@link #LAYER_STRATEGY_AUTO}, {@link #LAYER_STRATEGY_SOFTWARE}, {@link #LAYER_STRATEGY_HARDWARE}
+   * or {@link #LAYER_STRATEGY_NONE}
+   */
+  @LayerStrategy public int getLayerStrategy() {
+    return mLayerStrategy;
+  }
+
+  /**
+   * Get the layer type chosen for the current {@link #setLayerStrategy(int) layer strategy} and the inputs it was
+   * based on. The decision is updated when the glyphs, the size of the view or the strategy change.
+   *
+   * @return the last layer decision
+   */
+  public LayerDecision getLayerDecision() {
+    return mLayerDecision;
+  }
+
+  /**
+   * Simplify the glyphs for the size they are drawn at. Curves are flattened and vertices that are closer than the
+   * tolerance to the simplified outline are removed, which reduces the work to dash and rasterize SVGs that are drawn
+   * much smaller than their viewport. The simplified glyphs are cached for each power of two of the drawing scale and
+   * shared with every view that shows the same SVG. If glyphs are {@link #setPrepareGlyphsAsync(boolean) prepared
+   * asynchronously} they are also simplified in the background and the original glyphs are drawn meanwhile.
+   *
+   * @param tolerance
+   *     The maximum distance between the original and the simplified glyphs in pixels, or 0 to draw the original
+   *     glyphs. Half a pixel to one pixel is usually not visible.
+   * @see #getSimplificationStats()
+   */
+  public void setSimplificationTolerance(float tolerance) {
+    mDrawable.setSimplificationTolerance(tolerance);
+  }
+
+  /**
+   * @return the maximum distance between the original and the simplified glyphs in pixels, or 0 if the glyphs are
+   * not simplified.
+   */
+  public float getSimplificationTolerance() {
+    return mDrawable.getSimplificationTolerance();
+  }
+
+  /**
+   * @return how much the glyphs were simplified for the current size, or {@code null} if they are not simplified.
+   */
+  public SimplificationStats getSimplificationStats() {
+    return mDrawable.getSimplificationStats();
+  }
+
+  /**
+   * Set the registry that shares parsed glyphs between views showing the same SVG. Views use
+   * {@link GlyphSetRegistry#getDefault()} unless another registry is set. The new registry is used the next time the
+   * glyphs are built.
+   *
+   * @param registry
+   *     The registry, or {@code null} to parse and measure the glyphs for this view only.
+   */
+  public void setGlyphSetRegistry(GlyphSetRegistry registry) {
+    mDrawable.setGlyphSetRegistry(registry);
+  }
+
+  /**
+   * @return the registry that shares the glyphs of this view, or {@code null} if they are not shared.
+   */
+  public GlyphSetRegistry getGlyphSetRegistry() {
+    return mDrawable.getGlyphSetRegistry();
+  }
+
+  /**
+   * @return the glyphs drawn by this view, or {@code null} if they have not been built yet.
+   */
+  public GlyphSet getGlyphSet() {
+    return mDrawable.getGlyphSet();
+  }
+
+  /**
+   * Guarantee that drawing the animation does not allocate any objects on the heap. Every dash effect a glyph can
+   * request is created up front when the glyph data is built instead of lazily the first time it is drawn. This uses
+   * more memory for long paths but avoids garbage collection during the animation.
+   *
+   * @param allocationFreeDrawing
+   *     {@code true} to create all dash effects before the animation starts.
+   */
+  public void setAllocationFreeDrawing(boolean allocationFreeDrawing) {
+    mDrawable.setAllocationFreeDrawing(allocationFreeDrawing);
+  }
+
+  /**
+   * @return {@code true} if all dash effects are created before the animation starts.
+   * @see #setAllocationFreeDrawing(boolean)
+   */
+  public boolean isAllocationFreeDrawing() {
+    return mDrawable.isAllocationFreeDrawing();
   }
 
   /**
@@ -295,11 +402,9 @@ public class AnimatedSvgView extends View {
    *     the height
    */
   public void setViewportSize(float viewportWidth, float viewportHeight) {
-    mViewportWidth = viewportWidth;
-    mViewportHeight = viewportHeight;
     aspectRatioWidth = viewportWidth;
     aspectRatioHeight = viewportHeight;
-    mViewport = new PointF(mViewportWidth, mViewportHeight);
+    mDrawable.setViewportSize(viewportWidth, viewportHeight);
     requestLayout();
   }
 
@@ -310,7 +415,7 @@ public class AnimatedSvgView extends View {
    *     The path strings found in the SVG.
    */
   public void setGlyphStrings(@NonNull String... glyphStrings) {
-    mGlyphStrings = glyphStrings;
+    mDrawable.setGlyphStrings(glyphStrings);
   }
 
   /**
@@ -320,7 +425,7 @@ public class AnimatedSvgView extends View {
    *     the colors. Should be the same length as the SVG paths.
    */
   public void setTraceResidueColors(@NonNull int[] traceResidueColors) {
-    mTraceResidueColors = traceResidueColors;
+    mDrawable.setTraceResidueColors(traceResidueColors);
   }
 
   /**
@@ -330,7 +435,7 @@ public class AnimatedSvgView extends View {
    *     The colors. Should be the same length as the SVG paths.
    */
   public void setTraceColors(@NonNull int[] traceColors) {
-    mTraceColors = traceColors;
+    mDrawable.setTraceColors(traceColors);
   }
 
   /**
@@ -340,7 +445,7 @@ public class AnimatedSvgView extends View {
    *     The colors for each SVG data path.
    */
   public void setFillColors(@NonNull int[] fillColors) {
-    mFillColors = fillColors;
+    mDrawable.setFillColors(fillColors);
   }
 
   /**
@@ -350,15 +455,7 @@ public class AnimatedSvgView extends View {
    *     The color
    */
   public void setTraceResidueColor(@ColorInt int color) {
-    if (mGlyphStrings == null) {
-      throw new RuntimeException("You need to set the glyphs first.");
-    }
-    int length = mGlyphStrings.length;
-    int[] colors = new int[length];
-    for (int i = 0; i < length; i++) {
-      colors[i] = color;
-    }
-    setTraceResidueColors(colors);
+    mDrawable.setTraceResidueColor(color);
   }
 
   /**
@@ -368,15 +465,7 @@ public class AnimatedSvgView extends View {
    *     The color
    */
   public void setTraceColor(@ColorInt int color) {
-    if (mGlyphStrings == null) {
-      throw new RuntimeException("You need to set the glyphs first.");
-    }
-    int length = mGlyphStrings.length;
-    int[] colors = new int[length];
-    for (int i = 0; i < length; i++) {
-      colors[i] = color;
-    }
-    setTraceColors(colors);
+    mDrawable.setTraceColor(color);
   }
 
   /**
@@ -386,15 +475,7 @@ public class AnimatedSvgView extends View {
    *     The color
    */
   public void setFillColor(@ColorInt int color) {
-    if (mGlyphStrings == null) {
-      throw new RuntimeException("You need to set the glyphs first.");
-    }
-    int length = mGlyphStrings.length;
-    int[] colors = new int[length];
-    for (int i = 0; i < length; i++) {
-      colors[i] = color;
-    }
-    setFillColors(colors);
+    mDrawable.setFillColor(color);
   }
 
   /**
@@ -404,7 +485,7 @@ public class AnimatedSvgView extends View {
    *     time in milliseconds
    */
   public void setTraceTime(int traceTime) {
-    mTraceTime = traceTime;
+    mDrawable.setTraceTime(traceTime);
   }
 
   /**
@@ -414,7 +495,7 @@ public class AnimatedSvgView extends View {
    *     time in milliseconds
    */
   public void setTraceTimePerGlyph(int traceTimePerGlyph) {
-    mTraceTimePerGlyph = traceTimePerGlyph;
+    mDrawable.setTraceTimePerGlyph(traceTimePerGlyph);
   }
 
   /**
@@ -424,7 +505,7 @@ public class AnimatedSvgView extends View {
    *     time in milliseconds
    */
   public void setFillStart(int fillStart) {
-    mFillStart = fillStart;
+    mDrawable.setFillStart(fillStart);
   }
 
   /**
@@ -434,34 +515,233 @@ public class AnimatedSvgView extends View {
    *     time in milliseconds
    */
   public void setFillTime(int fillTime) {
-    mFillTime = fillTime;
+    mDrawable.setFillTime(fillTime);
+  }
+
+  /**
+   * Set how glyphs are traced. {@link #TRACE_MODE_DASH} applies a dash effect to the entire path of each glyph.
+   * {@link #TRACE_MODE_SEGMENT} copies only the visible part of each path, which is faster for complex paths.
+   * {@link #TRACE_MODE_CONTOUR} traces each contour of a glyph by its own length, so glyphs with many subpaths
+   * trace evenly.
+   *
+   * @param traceMode
+   *     Either {@link #TRACE_MODE_DASH}, {@link #TRACE_MODE_SEGMENT} or {@link #TRACE_MODE_CONTOUR}
+   */
+  public void setTraceMode(@TraceMode int traceMode) {
+    mDrawable.setTraceMode(traceMode);
+  }
+
+  /**
+   * Get how glyphs are traced.
+   *
+   * @return Either {@link #TRACE_MODE_DASH}, {@link #TRACE_MODE_SEGMENT} or {@link #TRACE_MODE_CONTOUR}
+   */
+  @TraceMode public int getTraceMode() {
+    return mDrawable.getTraceMode();
+  }
+
+  /**
+   * Set how glyphs are filled. {@link #FILL_STRATEGY_PER_GLYPH} draws every glyph on every frame of the fill.
+   * {@link #FILL_STRATEGY_LAYER} renders all filled glyphs into an offscreen bitmap once and fades the bitmap in, so
+   * each frame of the fill is a single draw call. This needs a bitmap the size of the view and blends overlapping
+   * translucent glyphs as one layer. If the bitmap can't be allocated the glyphs are filled one by one.
+   *
+   * @param fillStrategy
+   *     Either {@link #FILL_STRATEGY_PER_GLYPH} or {@link #FILL_STRATEGY_LAYER}
+   */
+  public void setFillStrategy(@FillStrategy int fillStrategy) {
+    mDrawable.setFillStrategy(fillStrategy);
+  }
+
+  /**
+   * Get how glyphs are filled.
+   *
+   * @return Either {@link #FILL_STRATEGY_PER_GLYPH} or {@link #FILL_STRATEGY_LAYER}
+   */
+  @FillStrategy public int getFillStrategy() {
+    return mDrawable.getFillStrategy();
+  }
+
+  /**
+   * Bake the trace residue of every glyph that has finished tracing into an offscreen bitmap. Each glyph is drawn into
+   * the bitmap once, so the cost of a frame depends on the number of glyphs that are still being traced instead of
+   * the total number of glyphs. This needs a bitmap the size of the view and is disabled if it can't be allocated.
+   *
+   * @param residueLayerEnabled
+   *     {@code true} to bake finished glyphs into a residue layer.
+   */
+  public void setResidueLayerEnabled(boolean residueLayerEnabled) {
+    mDrawable.setResidueLayerEnabled(residueLayerEnabled);
+  }
+
+  /**
+   * @return {@code true} if finished glyphs are baked into a residue layer.
+   * @see #setResidueLayerEnabled(boolean)
+   */
+  public boolean isResidueLayerEnabled() {
+    return mDrawable.isResidueLayerEnabled();
+  }
+
+  /**
+   * Build the glyph data on a background thread instead of the UI thread. Calls to {@link #start()} made while the
+   * glyphs are being prepared are deferred until the glyphs are ready.
+   *
+   * @param prepareGlyphsAsync
+   *     {@code true} to parse and measure the glyphs on a background thread.
+   * @see #setGlyphPreparationExecutor(Executor)
+   * @see #setOnGlyphsPreparedListener(OnGlyphsPreparedListener)
+   */
+  public void setPrepareGlyphsAsync(boolean prepareGlyphsAsync) {
+    mDrawable.setPrepareGlyphsAsync(prepareGlyphsAsync);
+  }
+
+  /**
+   * Set the executor used to prepare glyphs when {@link #setPrepareGlyphsAsync(boolean)} is enabled. Defaults to
+   * {@link AsyncTask#THREAD_POOL_EXECUTOR}. If the executor rejects a task the glyphs are prepared synchronously.
+   *
+   * @param executor
+   *     The executor or {@code null} to use the default executor.
+   */
+  public void setGlyphPreparationExecutor(Executor executor) {
+    mDrawable.setGlyphPreparationExecutor(executor);
+  }
+
+  /**
+   * Split parsing and measuring the glyphs across multiple threads on multi-core devices. This only has an effect
+   * for SVGs with many paths. Glyphs keep their order and a glyph that can't be parsed is still replaced with an
+   * empty path. The thread that prepares the glyphs builds them as well and never waits for the helper threads, so
+   * a busy device is no slower than preparing them on one thread.
+   *
+   * @param prepareGlyphsInParallel
+   *     {@code true} to build the glyphs on multiple threads.
+   */
+  public void setPrepareGlyphsInParallel(boolean prepareGlyphsInParallel) {
+    mDrawable.setPrepareGlyphsInParallel(prepareGlyphsInParallel);
+  }
+
+  /**
+   * @return {@code true} if glyphs are being prepared on a background thread.
+   */
+  public boolean isPreparingGlyphs() {
+    return mDrawable.isPreparingGlyphs();
+  }
+
+  /**
+   * Get notified when the glyph data has been built and published to the view.
+   *
+   * @param onGlyphsPreparedListener
+   *     The {@link OnGlyphsPreparedListener}
+   */
+  public void setOnGlyphsPreparedListener(OnGlyphsPreparedListener onGlyphsPreparedListener) {
+    mDrawable.setOnGlyphsPreparedListener(onGlyphsPreparedListener);
+  }
+
+  /**
+   * Get notified about the cost of every frame of the animation and a summary when it finishes. Frames are only
+   * measured while a listener is set.
+   *
+   * @param onFrameMetricsListener
+   *     The {@link OnFrameMetricsListener} or {@code null} to stop measuring frames.
+   */
+  public void setOnFrameMetricsListener(OnFrameMetricsListener onFrameMetricsListener) {
+    mDrawable.setOnFrameMetricsListener(onFrameMetricsListener);
+  }
+
+  /**
+   * Set the clock that drives the animation. Defaults to {@link AnimationClock#FRAME_TIME}. With a
+   * {@link AnimationClock#isManual() manual} clock such as {@link ManualClock} the view draws the frame at the time of
+   * the clock whenever it is invalidated and does not schedule any frames by itself.
+   *
+   * @param clock
+   *     The clock
+   */
+  public void setAnimationClock(@NonNull AnimationClock clock) {
+    mDrawable.setAnimationClock(clock);
+  }
+
+  /**
+   * @return the clock that drives the animation.
+   */
+  @NonNull public AnimationClock getAnimationClock() {
+    return mDrawable.getAnimationClock();
+  }
+
+  /**
+   * Let a shared {@link AnimationTicker} drive the animation instead of scheduling frames from this view. The ticker
+   * also becomes the {@link #setAnimationClock(AnimationClock) clock} of the view. Setting another clock detaches the
+   * view from the ticker.
+   *
+   * @param ticker
+   *     The ticker, or {@code null} to schedule frames from this view again.
+   */
+  public void setAnimationTicker(AnimationTicker ticker) {
+    mDrawable.setAnimationTicker(ticker);
+  }
+
+  /**
+   * @return the ticker that drives the animation, or {@code null} if the view schedules its own frames.
+   */
+  public AnimationTicker getAnimationTicker() {
+    return mDrawable.getAnimationTicker();
   }
 
   /**
    * Start the animation
    */
   public void start() {
-    mStartTime = System.currentTimeMillis();
-    changeState(STATE_TRACE_STARTED);
-    ViewCompat.postInvalidateOnAnimation(this);
+    mDrawable.start();
   }
 
   /**
    * Reset the animation
    */
   public void reset() {
-    mStartTime = 0;
-    changeState(STATE_NOT_STARTED);
-    ViewCompat.postInvalidateOnAnimation(this);
+    mDrawable.reset();
   }
 
   /**
-   * Draw the SVG, skipping any animation.
+   * Draw the SVG, skipping any animation. The finished frame is recorded once and replayed on every later draw.
    */
   public void setToFinishedFrame() {
-    mStartTime = 1;
-    changeState(STATE_FINISHED);
-    ViewCompat.postInvalidateOnAnimation(this);
+    mDrawable.setToFinishedFrame();
+  }
+
+  /**
+   * Transform the SVG into other glyphs, morphing the paths if they are compatible and cross-fading them otherwise.
+   *
+   * @param glyphStrings
+   *     the path data of the new glyphs
+   * @param fillColors
+   *     the fill color of each new glyph
+   * @param durationMillis
+   *     the duration of the transition
+   * @return {@code true} if the glyphs morph, {@code false} if they cross-fade.
+   * @see AnimatedSvgDrawable#morphTo(String[], int[], long)
+   */
+  public boolean morphTo(@NonNull String[] glyphStrings, @NonNull int[] fillColors, long durationMillis) {
+    return mDrawable.morphTo(glyphStrings, fillColors, durationMillis);
+  }
+
+  /**
+   * Transform the SVG into other glyphs with their own trace colors, morphing the paths if they are compatible and
+   * cross-fading them otherwise.
+   *
+   * @param glyphStrings
+   *     the path data of the new glyphs
+   * @param fillColors
+   *     the fill color of each new glyph
+   * @param traceColors
+   *     the trace color of each new glyph
+   * @param traceResidueColors
+   *     the trace residue color of each new glyph
+   * @param durationMillis
+   *     the duration of the transition
+   * @return {@code true} if the glyphs morph, {@code false} if they cross-fade.
+   * @see AnimatedSvgDrawable#morphTo(String[], int[], int[], int[], long)
+   */
+  public boolean morphTo(@NonNull String[] glyphStrings, @NonNull int[] fillColors, @NonNull int[] traceColors,
+      @NonNull int[] traceResidueColors, long durationMillis) {
+    return mDrawable.morphTo(glyphStrings, fillColors, traceColors, traceResidueColors, durationMillis);
   }
 
   /**
@@ -473,7 +753,7 @@ public class AnimatedSvgView extends View {
    * {@link #STATE_FINISHED}
    */
   @State public int getState() {
-    return mState;
+    return mDrawable.getAnimationState();
   }
 
   /**
@@ -483,18 +763,7 @@ public class AnimatedSvgView extends View {
    *     The {@link OnStateChangeListener}
    */
   public void setOnStateChangeListener(OnStateChangeListener onStateChangeListener) {
-    mOnStateChangeListener = onStateChangeListener;
-  }
-
-  private void changeState(@State int state) {
-    if (mState == state) {
-      return;
-    }
-
-    mState = state;
-    if (mOnStateChangeListener != null) {
-      mOnStateChangeListener.onStateChange(state);
-    }
+    mDrawable.setOnStateChangeListener(onStateChangeListener);
   }
 
   /**
@@ -515,15 +784,56 @@ public class AnimatedSvgView extends View {
     void onStateChange(@State int state);
   }
 
+  /**
+   * Callback for listening to glyph preparation
+   */
+  public interface OnGlyphsPreparedListener {
+
+    /**
+     * Called on the UI thread after the glyph data has been built and published to the view.
+     *
+     * @param durationMillis
+     *     The time it took to parse and measure the glyphs in milliseconds.
+     */
+    void onGlyphsPrepared(long durationMillis);
+  }
+
+  /**
+   * Callback for measuring the animation
+   */
+  public interface OnFrameMetricsListener {
+
+    /**
+     * Called on the UI thread after each frame of the animation was drawn.
+     *
+     * @param frame
+     *     The stats of the frame. The instance is reused for the next frame.
+     */
+    void onFrame(FrameStats frame);
+
+    /**
+     * Called on the UI thread when the animation reaches {@link #STATE_FINISHED}, before the state listener.
+     *
+     * @param stats
+     *     The summary of all frames since the animation started.
+     */
+    void onAnimationFinished(AnimationStats stats);
+  }
+
   @IntDef({STATE_NOT_STARTED, STATE_TRACE_STARTED, STATE_FILL_STARTED, STATE_FINISHED})
   public @interface State {
   }
 
-  static final class GlyphData {
-    Path path;
-    Paint paint;
-    float length;
+  @IntDef({TRACE_MODE_DASH, TRACE_MODE_SEGMENT, TRACE_MODE_CONTOUR})
+  public @interface TraceMode {
+  }
+
+  @IntDef({FILL_STRATEGY_PER_GLYPH, FILL_STRATEGY_LAYER})
+  public @interface FillStrategy {
+  }
 
+  @IntDef({LAYER_STRATEGY_AUTO, LAYER_STRATEGY_SOFTWARE, LAYER_STRATEGY_HARDWARE, LAYER_STRATEGY_NONE})
+  public @interface LayerStrategy {
   }
 
-}
\ No newline at end of file
+}
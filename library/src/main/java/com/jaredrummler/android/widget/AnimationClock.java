@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.view.animation.AnimationUtils;
+
+/**
+ * The source of time for an {@link AnimatedSvgView}. Only differences between two times are used, so the clock may
+ * start at any value but must never go backwards.
+ */
+public interface AnimationClock {
+
+  /**
+   * The default clock. It returns the time of the frame being drawn as reported by the Choreographer, so every view
+   * drawn in the same frame sees the same time and progress does not depend on when {@code onDraw} runs. The time is
+   * based on {@link android.os.SystemClock#uptimeMillis()} and does not jump when the wall clock is changed.
+   */
+  AnimationClock FRAME_TIME = new AnimationClock() {
+    @Override public long getTimeMillis() {
+      return AnimationUtils.currentAnimationTimeMillis();
+    }
+
+    @Override public boolean isManual() {
+      return false;
+    }
+  };
+
+  /**
+   * @return the current time in milliseconds.
+   */
+  long getTimeMillis();
+
+  /**
+   * @return {@code true} if the clock only moves when it is told to, e.g. in tests or when rendering without a display.
+   * A view driven by a manual clock does not schedule frames by itself; its owner invalidates it after moving the
+   * clock. {@code false} if the clock moves by itself and the view schedules its next frame while it animates.
+   */
+  boolean isManual();
+
+}
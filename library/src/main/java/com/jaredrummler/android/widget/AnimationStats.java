@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+/**
+ * A summary of the frames an {@link AnimatedSvgView} drew from the start of the animation until it finished.
+ */
+public final class AnimationStats {
+
+  private final int mFrameCount;
+  private final int mLateFrameCount;
+  private final int mSkippedFrames;
+  private final long mTotalDrawDurationNanos;
+  private final long mMaxDrawDurationNanos;
+  private final int mDashPathEffectsCreated;
+  private final long mGlyphBuildDurationMillis;
+
+  AnimationStats(int frameCount, int lateFrameCount, int skippedFrames, long totalDrawDurationNanos,
+                 long maxDrawDurationNanos, int dashPathEffectsCreated, long glyphBuildDurationMillis) {
+    mFrameCount = frameCount;
+    mLateFrameCount = lateFrameCount;
+    mSkippedFrames = skippedFrames;
+    mTotalDrawDurationNanos = totalDrawDurationNanos;
+    mMaxDrawDurationNanos = maxDrawDurationNanos;
+    mDashPathEffectsCreated = dashPathEffectsCreated;
+    mGlyphBuildDurationMillis = glyphBuildDurationMillis;
+  }
+
+  /**
+   * @return the number of frames drawn.
+   */
+  public int getFrameCount() {
+    return mFrameCount;
+  }
+
+  /**
+   * @return the number of frames that were drawn later than the next display frame after the previous one.
+   */
+  public int getLateFrameCount() {
+    return mLateFrameCount;
+  }
+
+  /**
+   * @return the number of display frames that were skipped in total.
+   */
+  public int getSkippedFrames() {
+    return mSkippedFrames;
+  }
+
+  /**
+   * @return the time spent drawing all frames, in nanoseconds.
+   */
+  public long getTotalDrawDurationNanos() {
+    return mTotalDrawDurationNanos;
+  }
+
+  /**
+   * @return the average time spent drawing a frame, in nanoseconds.
+   */
+  public long getAverageDrawDurationNanos() {
+    return mFrameCount > 0 ? mTotalDrawDurationNanos / mFrameCount : 0;
+  }
+
+  /**
+   * @return the longest time spent drawing a frame, in nanoseconds.
+   */
+  public long getMaxDrawDurationNanos() {
+    return mMaxDrawDurationNanos;
+  }
+
+  /**
+   * @return the number of dash path effects created during the animation.
+   */
+  public int getDashPathEffectsCreated() {
+    return mDashPathEffectsCreated;
+  }
+
+  /**
+   * @return the time it took to parse and measure the glyphs the last time they were built, in milliseconds.
+   */
+  public long getGlyphBuildDurationMillis() {
+    return mGlyphBuildDurationMillis;
+  }
+
+  @Override public String toString() {
+    return "AnimationStats{frameCount=" + mFrameCount + ", lateFrameCount=" + mLateFrameCount + ", skippedFrames="
+        + mSkippedFrames + ", averageDrawDurationNanos=" + getAverageDrawDurationNanos() + ", maxDrawDurationNanos="
+        + mMaxDrawDurationNanos + ", dashPathEffectsCreated=" + mDashPathEffectsCreated
+        + ", glyphBuildDurationMillis=" + mGlyphBuildDurationMillis + "}";
+  }
+
+}
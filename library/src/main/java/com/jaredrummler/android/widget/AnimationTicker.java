@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.animation.AnimationUtils;
+import androidx.annotation.NonNull;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives many {@link AnimatedSvgView}s and {@link AnimatedSvgDrawable}s from a single frame callback. Animations that
+ * use a ticker do not schedule their own frames. Instead the ticker reads the frame time once per frame, works out
+ * which drawables draw a different frame than last time and invalidates only those. Drawables that are not shown or
+ * are waiting for a staggered start are not invalidated at all.
+ *
+ * <p>The ticker is also the {@link AnimationClock} of its drawables, so animations started together stay in sync. All
+ * methods must be called on the main thread. Drawables leave the ticker when they are hidden, and the ticker only
+ * holds them weakly, so a drawable that is dropped without being hidden is not kept alive until its animation
+ * ends.</p>
+ *
+ * <pre>
+ * AnimationTicker ticker = new AnimationTicker();
+ * ticker.startStaggered(100, logoViews);
+ * </pre>
+ */
+public final class AnimationTicker implements AnimationClock {
+
+  /** The drawable is not animating and can be removed from the ticker. */
+  static final int TICK_DONE = 0;
+  /** The drawable draws the same frame as on the last tick. */
+  static final int TICK_UNCHANGED = 1;
+  /** The drawable draws a new frame and was invalidated. */
+  static final int TICK_INVALIDATED = 2;
+
+  /** The delay between frames before the Choreographer is available. */
+  private static final long FALLBACK_FRAME_DELAY_MILLIS = 16;
+
+  private final List<WeakReference<AnimatedSvgDrawable>> mDrawables = new ArrayList<>();
+  /** The drawables ticked on the current frame, reused so that a frame doesn't allocate. */
+  private final List<AnimatedSvgDrawable> mTicking = new ArrayList<>();
+  private final Runnable mFrameRunnable = new Runnable() {
+    @Override public void run() {
+      doFrame();
+    }
+  };
+  private Object mFrameCallback;
+  private Handler mHandler;
+  private boolean mScheduled;
+  private int mLastFrameInvalidatedCount;
+  private long mFrameCount;
+
+  @Override public long getTimeMillis() {
+    return AnimationUtils.currentAnimationTimeMillis();
+  }
+
+  @Override public boolean isManual() {
+    return false;
+  }
+
+  /**
+   * Start the views at the same time. Views that do not use this ticker yet are attached to it.
+   *
+   * @param views
+   *     the views to start
+   */
+  public void startTogether(@NonNull AnimatedSvgView... views) {
+    startStaggered(0, views);
+  }
+
+  /**
+   * Start the drawables at the same time. Drawables that do not use this ticker yet are attached to it.
+   *
+   * @param drawables
+   *     the drawables to start
+   */
+  public void startTogether(@NonNull AnimatedSvgDrawable... drawables) {
+    startStaggered(0, drawables);
+  }
+
+  /**
+   * Start each view {@code staggerMillis} after the previous one. Views that do not use this ticker yet are attached
+   * to it. All start times are based on the same frame, so the offsets between the views are exact.
+   *
+   * @param staggerMillis
+   *     the delay between the starts of two consecutive views in milliseconds
+   * @param views
+   *     the views to start, in order
+   */
+  public void startStaggered(long staggerMillis, @NonNull AnimatedSvgView... views) {
+    AnimatedSvgDrawable[] drawables = new AnimatedSvgDrawable[views.length];
+    for (int i = 0; i < views.length; i++) {
+      drawables[i] = views[i].getDrawable();
+    }
+    startStaggered(staggerMillis, drawables);
+  }
+
+  /**
+   * Start each drawable {@code staggerMillis} after the previous one. Drawables that do not use this ticker yet are
+   * attached to it. All start times are based on the same frame, so the offsets between the drawables are exact.
+   *
+   * @param staggerMillis
+   *     the delay between the starts of two consecutive drawables in milliseconds
+   * @param drawables
+   *     the drawables to start, in order
+   */
+  public void startStaggered(long staggerMillis, @NonNull AnimatedSvgDrawable... drawables) {
+    long startTime = getTimeMillis();
+    for (int i = 0; i < drawables.length; i++) {
+      AnimatedSvgDrawable drawable = drawables[i];
+      if (drawable.getAnimationTicker() != this) {
+        drawable.setAnimationTicker(this);
+      }
+      drawable.startAt(startTime + i * staggerMillis);
+    }
+  }
+
+  /**
+   * @return the number of drawables that are animated by this ticker.
+   */
+  public int getActiveCount() {
+    return mDrawables.size();
+  }
+
+  /**
+   * @return the number of drawables that were invalidated on the last frame.
+   */
+  public int getLastFrameInvalidatedCount() {
+    return mLastFrameInvalidatedCount;
+  }
+
+  /**
+   * @return the number of frames this ticker has run.
+   */
+  public long getFrameCount() {
+    return mFrameCount;
+  }
+
+  /**
+   * Tick the drawable on every frame until its animation is finished.
+   */
+  void add(AnimatedSvgDrawable drawable) {
+    if (indexOf(drawable) < 0) {
+      mDrawables.add(new WeakReference<>(drawable));
+    }
+    scheduleFrame();
+  }
+
+  void remove(AnimatedSvgDrawable drawable) {
+    int index = indexOf(drawable);
+    if (index >= 0) {
+      mDrawables.remove(index);
+    }
+  }
+
+  private int indexOf(AnimatedSvgDrawable drawable) {
+    for (int i = 0; i < mDrawables.size(); i++) {
+      if (mDrawables.get(i).get() == drawable) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private void doFrame() {
+    mScheduled = false;
+    mFrameCount++;
+    long now = getTimeMillis();
+    // Tick a snapshot, because a drawable may add or remove drawables while it is ticked. Collected drawables are
+    // dropped here.
+    for (int i = mDrawables.size() - 1; i >= 0; i--) {
+      AnimatedSvgDrawable drawable = mDrawables.get(i).get();
+      if (drawable == null) {
+        mDrawables.remove(i);
+      } else {
+        mTicking.add(drawable);
+      }
+    }
+    int invalidated = 0;
+    for (int i = 0; i < mTicking.size(); i++) {
+      AnimatedSvgDrawable drawable = mTicking.get(i);
+      switch (drawable.onAnimationTick(now)) {
+        case TICK_DONE:
+          remove(drawable);
+          break;
+        case TICK_INVALIDATED:
+          invalidated++;
+          break;
+      }
+    }
+    mTicking.clear();
+    mLastFrameInvalidatedCount = invalidated;
+    scheduleFrame();
+  }
+
+  private void scheduleFrame() {
+    if (mScheduled || mDrawables.isEmpty()) {
+      return;
+    }
+    mScheduled = true;
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+      if (mFrameCallback == null) {
+        mFrameCallback = new FrameCallback(mFrameRunnable);
+      }
+      Choreographer.getInstance().postFrameCallback((FrameCallback) mFrameCallback);
+    } else {
+      if (mHandler == null) {
+        mHandler = new Handler(Looper.getMainLooper());
+      }
+      mHandler.postDelayed(mFrameRunnable, FALLBACK_FRAME_DELAY_MILLIS);
+    }
+  }
+
+  /**
+   * Kept in its own class so that the Choreographer is only loaded on versions that have it.
+   */
+  private static final class FrameCallback implements Choreographer.FrameCallback {
+
+    private final Runnable mRunnable;
+
+    FrameCallback(Runnable runnable) {
+      mRunnable = runnable;
+    }
+
+    @Override public void doFrame(long frameTimeNanos) {
+      mRunnable.run();
+    }
+  }
+
+}
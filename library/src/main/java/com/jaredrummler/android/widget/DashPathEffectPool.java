@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.DashPathEffect;
+
+/**
+ * A pool of the {@link DashPathEffect}s used to trace glyphs. Effects are keyed by the traced distance rounded to the
+ * pixel and the glyph length rounded up to the pixel, so every frame after the first one that reaches a given
+ * distance re-uses an existing effect instead of allocating a new one.
+ *
+ * <p>Distances are given in pixels. The intervals of the effects are converted to path units using the
+ * {@link #setScale(float) scale} the paths are drawn with.</p>
+ *
+ * <p>A glyph longer than the {@link #setMaxSteps(int) maximum number of steps} is traced in steps of more than one
+ * pixel, so the number of effects per glyph does not grow with its length. The pool never holds more than
+ * {@link #MAX_SIZE} effects.</p>
+ */
+final class DashPathEffectPool {
+
+  private static final long TYPE_RESIDUE = 0;
+  private static final long TYPE_MARKER = 1;
+  private static final long TYPE_MARKER_EMPTY = 2;
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  /** The maximum number of pooled effects. The pool is cleared when a new effect would exceed it. */
+  static final int MAX_SIZE = 1 << 14;
+
+  private final float[] mResidueIntervals = new float[2];
+  private final float[] mMarkerIntervals = new float[4];
+
+  private long[] mKeys;
+  private DashPathEffect[] mValues;
+  private int mSize;
+  private int mCreatedCount;
+  private float mScale = 1;
+  private int mMaxSteps = Integer.MAX_VALUE;
+
+  DashPathEffectPool() {
+    mKeys = new long[INITIAL_CAPACITY];
+    mValues = new DashPathEffect[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Get the effect that draws the first {@code distance} pixels of a glyph.
+   *
+   * @param distance
+   *     the traced distance
+   * @param length
+   *     the length of the glyph
+   * @return the pooled effect
+   */
+  DashPathEffect residue(float distance, float length) {
+    int l = (int) Math.ceil(length);
+    int d = quantize(distance, l);
+    long key = key(TYPE_RESIDUE, d, l);
+    DashPathEffect effect = get(key);
+    if (effect == null) {
+      mResidueIntervals[0] = d / mScale;
+      mResidueIntervals[1] = l / mScale;
+      effect = new DashPathEffect(mResidueIntervals, 0);
+      put(key, effect);
+      mCreatedCount++;
+    }
+    return effect;
+  }
+
+  /**
+   * Get the effect that draws the trace marker after the first {@code distance} pixels of a glyph.
+   *
+   * @param distance
+   *     the traced distance
+   * @param markerLength
+   *     the length of the marker. Changing the marker length requires the pool to be {@link #clear() cleared}.
+   * @param length
+   *     the length of the glyph
+   * @return the pooled effect
+   */
+  DashPathEffect marker(float distance, float markerLength, float length) {
+    int l = (int) Math.ceil(length);
+    int d = quantize(distance, l);
+    long key = key(markerLength > 0 ? TYPE_MARKER : TYPE_MARKER_EMPTY, d, l);
+    DashPathEffect effect = get(key);
+    if (effect == null) {
+      mMarkerIntervals[0] = 0;
+      mMarkerIntervals[1] = d / mScale;
+      mMarkerIntervals[2] = markerLength > 0 ? markerLength / mScale : 0;
+      mMarkerIntervals[3] = l / mScale;
+      effect = new DashPathEffect(mMarkerIntervals, 0);
+      put(key, effect);
+      mCreatedCount++;
+    }
+    return effect;
+  }
+
+  /**
+   * Create every effect a glyph of the given length can request so that drawing never allocates.
+   *
+   * @param length
+   *     the length of the glyph
+   * @param markerLength
+   *     the length of the marker
+   * @return {@code false} if the effects would not fit in the pool. They are created lazily while drawing instead.
+   */
+  boolean prewarm(float length, float markerLength) {
+    int l = (int) Math.ceil(length);
+    int step = step(l);
+    int count = 2 * (l / step + 3);
+    if (mSize + count > MAX_SIZE) {
+      return false;
+    }
+    ensureCapacity(mSize + count);
+    for (int d = 0; d < l; d += step) {
+      residue(d, l);
+      marker(d, markerLength, l);
+    }
+    residue(l, l);
+    marker(l, markerLength, l);
+    marker(0, 0, l);
+    return true;
+  }
+
+  /**
+   * Limit the number of distinct distances a glyph is traced at. Pooled effects are removed if the limit changes.
+   *
+   * @param maxSteps
+   *     the number of distances per glyph. Longer glyphs are traced in steps of more than one pixel.
+   */
+  void setMaxSteps(int maxSteps) {
+    maxSteps = Math.max(1, maxSteps);
+    if (maxSteps != mMaxSteps) {
+      mMaxSteps = maxSteps;
+      clear();
+    }
+  }
+
+  /**
+   * @return the distance between two effects of a glyph with the given length in pixels.
+   */
+  private int step(int length) {
+    return length > mMaxSteps ? (length + mMaxSteps - 1) / mMaxSteps : 1;
+  }
+
+  /**
+   * Round a distance to the closest step of the glyph. The end of the glyph is always a step.
+   */
+  private int quantize(float distance, int length) {
+    int step = step(length);
+    if (step == 1) {
+      return Math.round(distance);
+    }
+    return Math.min(length, Math.round(distance / step) * step);
+  }
+
+  /**
+   * Set the number of pixels per path unit. Pooled effects are removed if the scale changes.
+   *
+   * @param scale
+   *     the scale the paths are drawn with
+   */
+  void setScale(float scale) {
+    if (scale <= 0) {
+      scale = 1;
+    }
+    if (scale != mScale) {
+      mScale = scale;
+      clear();
+    }
+  }
+
+  /**
+   * Remove all pooled effects.
+   */
+  void clear() {
+    for (int i = 0; i < mValues.length; i++) {
+      mValues[i] = null;
+    }
+    mSize = 0;
+  }
+
+  /**
+   * @return the number of effects created since this pool was created.
+   */
+  int getCreatedCount() {
+    return mCreatedCount;
+  }
+
+  /**
+   * @return the number of pooled effects.
+   */
+  int size() {
+    return mSize;
+  }
+
+  private static long key(long type, int distance, int length) {
+    return (type << 62) | ((long) distance << 31) | length;
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private DashPathEffect get(long key) {
+    int mask = mKeys.length - 1;
+    for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+      DashPathEffect value = mValues[i];
+      if (value == null) {
+        return null;
+      }
+      if (mKeys[i] == key) {
+        return value;
+      }
+    }
+  }
+
+  private void put(long key, DashPathEffect effect) {
+    if (mSize >= MAX_SIZE) {
+      clear();
+    }
+    ensureCapacity(mSize + 1);
+    insert(mKeys, mValues, key, effect);
+    mSize++;
+  }
+
+  private void ensureCapacity(int size) {
+    if (size * 2 <= mKeys.length) {
+      return;
+    }
+    int capacity = mKeys.length;
+    while (size * 2 > capacity) {
+      capacity <<= 1;
+    }
+    long[] keys = new long[capacity];
+    DashPathEffect[] values = new DashPathEffect[capacity];
+    for (int i = 0; i < mValues.length; i++) {
+      if (mValues[i] != null) {
+        insert(keys, values, mKeys[i], mValues[i]);
+      }
+    }
+    mKeys = keys;
+    mValues = values;
+  }
+
+  private static void insert(long[] keys, DashPathEffect[] values, long key, DashPathEffect effect) {
+    int mask = keys.length - 1;
+    int i = hash(key) & mask;
+    while (values[i] != null) {
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    values[i] = effect;
+  }
+
+}
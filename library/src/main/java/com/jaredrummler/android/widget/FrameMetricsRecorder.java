@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+/**
+ * Collects the {@link FrameStats} of every frame of an animation and sums them up into {@link AnimationStats}.
+ */
+final class FrameMetricsRecorder {
+
+  private final FrameStats mFrame = new FrameStats();
+
+  private int mFrameCount;
+  private int mLateFrameCount;
+  private int mSkippedFrames;
+  private long mTotalDrawDurationNanos;
+  private long mMaxDrawDurationNanos;
+  private int mDashPathEffectsCreated;
+  private long mPreviousAnimationTimeMillis = -1;
+
+  /**
+   * Forget the frames of the previous animation.
+   */
+  void reset() {
+    mFrameCount = 0;
+    mLateFrameCount = 0;
+    mSkippedFrames = 0;
+    mTotalDrawDurationNanos = 0;
+    mMaxDrawDurationNanos = 0;
+    mDashPathEffectsCreated = 0;
+    mPreviousAnimationTimeMillis = -1;
+  }
+
+  /**
+   * Record a frame.
+   *
+   * @param animationTimeMillis
+   *     the time since the animation started that the frame shows
+   * @param drawDurationNanos
+   *     the time it took to draw the frame
+   * @param glyphsDrawn
+   *     the number of glyphs drawn
+   * @param dashPathEffectsCreated
+   *     the number of dash path effects created while drawing the frame
+   * @param frameIntervalMillis
+   *     the time between two display frames
+   * @return the stats of the frame. The instance is reused for the next frame.
+   */
+  FrameStats record(long animationTimeMillis, long drawDurationNanos, int glyphsDrawn, int dashPathEffectsCreated,
+                    float frameIntervalMillis) {
+    int skippedFrames = 0;
+    if (mPreviousAnimationTimeMillis >= 0 && frameIntervalMillis > 0) {
+      long elapsed = animationTimeMillis - mPreviousAnimationTimeMillis;
+      // Allow half a frame of jitter before a frame counts as late.
+      skippedFrames = Math.max(0, Math.round(elapsed / frameIntervalMillis) - 1);
+    }
+    mPreviousAnimationTimeMillis = animationTimeMillis;
+
+    mFrame.mFrameNumber = mFrameCount;
+    mFrame.mAnimationTimeMillis = animationTimeMillis;
+    mFrame.mDrawDurationNanos = drawDurationNanos;
+    mFrame.mGlyphsDrawn = glyphsDrawn;
+    mFrame.mDashPathEffectsCreated = dashPathEffectsCreated;
+    mFrame.mSkippedFrames = skippedFrames;
+
+    mFrameCount++;
+    if (skippedFrames > 0) {
+      mLateFrameCount++;
+      mSkippedFrames += skippedFrames;
+    }
+    mTotalDrawDurationNanos += drawDurationNanos;
+    mMaxDrawDurationNanos = Math.max(mMaxDrawDurationNanos, drawDurationNanos);
+    mDashPathEffectsCreated += dashPathEffectsCreated;
+    return mFrame;
+  }
+
+  /**
+   * @param glyphBuildDurationMillis
+   *     the time it took to build the glyphs that were animated
+   * @return the summary of all frames recorded since the last {@link #reset()}.
+   */
+  AnimationStats summarize(long glyphBuildDurationMillis) {
+    return new AnimationStats(mFrameCount, mLateFrameCount, mSkippedFrames, mTotalDrawDurationNanos,
+        mMaxDrawDurationNanos, mDashPathEffectsCreated, glyphBuildDurationMillis);
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+/**
+ * Timing of a single frame drawn by an {@link AnimatedSvgView}. The same instance is reused for every frame, so copy
+ * the values if they are needed after {@link AnimatedSvgView.OnFrameMetricsListener#onFrame(FrameStats)} returns.
+ */
+public final class FrameStats {
+
+  int mFrameNumber;
+  long mAnimationTimeMillis;
+  long mDrawDurationNanos;
+  int mGlyphsDrawn;
+  int mDashPathEffectsCreated;
+  int mSkippedFrames;
+
+  FrameStats() {
+  }
+
+  /**
+   * @return the number of this frame since the animation started, starting at 0.
+   */
+  public int getFrameNumber() {
+    return mFrameNumber;
+  }
+
+  /**
+   * @return the time since the animation started that this frame shows, in milliseconds.
+   */
+  public long getAnimationTimeMillis() {
+    return mAnimationTimeMillis;
+  }
+
+  /**
+   * @return the time it took to draw the glyphs in {@code onDraw}, in nanoseconds.
+   */
+  public long getDrawDurationNanos() {
+    return mDrawDurationNanos;
+  }
+
+  /**
+   * @return the number of glyphs that have started tracing and were drawn in this frame.
+   */
+  public int getGlyphsDrawn() {
+    return mGlyphsDrawn;
+  }
+
+  /**
+   * @return the number of dash path effects that were created while drawing this frame.
+   */
+  public int getDashPathEffectsCreated() {
+    return mDashPathEffectsCreated;
+  }
+
+  /**
+   * @return the number of display frames skipped between the previous frame and this one.
+   */
+  public int getSkippedFrames() {
+    return mSkippedFrames;
+  }
+
+  /**
+   * @return {@code true} if this frame was drawn later than the next display frame after the previous one.
+   */
+  public boolean isLate() {
+    return mSkippedFrames > 0;
+  }
+
+}
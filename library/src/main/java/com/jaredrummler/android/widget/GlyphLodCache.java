@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Path;
+import android.util.Log;
+import com.jaredrummler.android.path.PathMetrics;
+import com.jaredrummler.android.path.PathSimplifier;
+import com.jaredrummler.android.widget.AnimatedSvgDrawable.GlyphData;
+import com.jaredrummler.android.widget.AnimatedSvgDrawable.PointCounter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Simplified versions of a set of glyphs for the sizes they are drawn at. Drawing scales are rounded up to a power of
+ * two, and the glyphs are simplified once per tolerance and power of two, so the error on screen never exceeds the
+ * tolerance and small changes in size re-use the same glyphs.
+ *
+ * <p>Every {@link GlyphSet} has one cache, so views showing the same SVG share the simplified glyphs. All methods are
+ * thread safe. Simplifying takes a while for large SVGs, so {@link #build(float, int)} should be called on a
+ * background thread.</p>
+ */
+final class GlyphLodCache {
+
+  private static final String TAG = "AnimatedSvgView";
+
+  private final String[] mGlyphStrings;
+  private final Map<Long, Entry> mEntries = new HashMap<>();
+
+  /**
+   * @param glyphStrings
+   *     the path data of the glyphs. The array must not be modified.
+   */
+  GlyphLodCache(String[] glyphStrings) {
+    mGlyphStrings = glyphStrings;
+  }
+
+  /**
+   * @param scale
+   *     the number of pixels per viewport unit
+   * @return the power of two the glyphs are simplified for at the given scale.
+   */
+  static int bucket(float scale) {
+    return (int) Math.ceil(Math.log(scale) / Math.log(2));
+  }
+
+  /**
+   * @param tolerance
+   *     the maximum distance between the original and the simplified glyphs in pixels
+   * @param bucket
+   *     the {@link #bucket(float) bucket} of the drawing scale
+   * @return the cached glyphs, or {@code null} if they have not been simplified yet.
+   */
+  synchronized Entry get(float tolerance, int bucket) {
+    return mEntries.get(key(tolerance, bucket));
+  }
+
+  /**
+   * Get the simplified glyphs, simplifying them if they aren't cached yet.
+   *
+   * @param tolerance
+   *     the maximum distance between the original and the simplified glyphs in pixels
+   * @param bucket
+   *     the {@link #bucket(float) bucket} of the drawing scale
+   * @return the simplified glyphs
+   */
+  Entry build(float tolerance, int bucket) {
+    Entry entry = get(tolerance, bucket);
+    if (entry != null) {
+      return entry;
+    }
+    // Simplify without holding the lock so that other sizes can be read meanwhile.
+    Entry built = simplify(tolerance, bucket);
+    synchronized (this) {
+      Long key = key(tolerance, bucket);
+      entry = mEntries.get(key);
+      if (entry == null) {
+        entry = built;
+        mEntries.put(key, entry);
+      }
+      return entry;
+    }
+  }
+
+  /**
+   * @return the stats of the glyphs of an entry.
+   */
+  synchronized SimplificationStats getStats(Entry entry) {
+    int cachedSizeCount = 0;
+    for (Entry e : mEntries.values()) {
+      if (e.tolerance == entry.tolerance) {
+        cachedSizeCount++;
+      }
+    }
+    return new SimplificationStats(entry.tolerance, entry.scale, entry.inputSegmentCount, entry.outputSegmentCount,
+        cachedSizeCount);
+  }
+
+  private static Long key(float tolerance, int bucket) {
+    return ((long) Float.floatToIntBits(tolerance) << 32) | (bucket & 0xffffffffL);
+  }
+
+  private Entry simplify(float tolerance, int bucket) {
+    Entry entry = new Entry();
+    entry.tolerance = tolerance;
+    entry.scale = (float) Math.pow(2, bucket);
+    entry.glyphData = new GlyphData[mGlyphStrings.length];
+    float pathTolerance = tolerance / entry.scale;
+    for (int i = 0; i < mGlyphStrings.length; i++) {
+      Path path = new Path();
+      PointCounter counter = new PointCounter(new PathParser.AndroidPathSink(path),
+          new PathMetrics(AnimatedSvgDrawable.GLYPH_LENGTH_TOLERANCE, false));
+      PathSimplifier simplifier = new PathSimplifier(counter, pathTolerance);
+      try {
+        PathParser.parsePathData(mGlyphStrings[i], simplifier);
+        simplifier.finish();
+      } catch (Exception e) {
+        path.rewind();
+        counter = new PointCounter(null, new PathMetrics(AnimatedSvgDrawable.GLYPH_LENGTH_TOLERANCE, false));
+        Log.e(TAG, "Couldn't parse path", e);
+      }
+      entry.inputSegmentCount += simplifier.getInputSegmentCount();
+      entry.outputSegmentCount += simplifier.getOutputSegmentCount();
+      entry.glyphData[i] = AnimatedSvgDrawable.createGlyphData(path, counter);
+    }
+    return entry;
+  }
+
+  static final class Entry {
+    float tolerance;
+    float scale;
+    GlyphData[] glyphData;
+    int inputSegmentCount;
+    int outputSegmentCount;
+  }
+
+}
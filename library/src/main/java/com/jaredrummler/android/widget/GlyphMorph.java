@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Path;
+import com.jaredrummler.android.path.PathNormalizer;
+import com.jaredrummler.android.widget.AnimatedSvgDrawable.GlyphData;
+
+/**
+ * A transition from one set of glyphs to another. If both sets have the same number of glyphs and every pair of
+ * glyphs has the same commands with the same number of parameters, the glyphs morph: each frame interpolates the
+ * parameters into preallocated buffers and rewrites reusable paths. Otherwise the two sets cross-fade. Whether the
+ * glyphs can morph is decided once when the transition is created, and drawing a frame never allocates.
+ */
+final class GlyphMorph {
+
+  private final GlyphSet mTarget;
+  private final String[] mTargetStrings;
+  private final int[] mTargetColors;
+  private final Path[] mFromPaths;
+  private final int[] mFromColors;
+  private final Path[] mToPaths;
+
+  /** The following are only set if the glyphs can morph. */
+  private final PackedPathData[] mFrom;
+  private final PackedPathData[] mTo;
+  private final PackedPathData[] mCurrent;
+  private final Path[] mPaths;
+  private final PathParser.AndroidPathSink[] mSinks;
+  private final int[] mColors;
+  private final PathNormalizer mNormalizer;
+
+  /**
+   * @param fromStrings
+   *     the path data of the glyphs that are shown
+   * @param fromGlyphs
+   *     the glyphs that are shown
+   * @param fromColors
+   *     the fill colors of the glyphs that are shown
+   * @param target
+   *     the glyphs to show at the end. The morph holds a reference until it is {@link #release() released}.
+   * @param targetStrings
+   *     the path data of the target glyphs
+   * @param targetColors
+   *     the fill colors of the target glyphs
+   */
+  GlyphMorph(String[] fromStrings, GlyphData[] fromGlyphs, int[] fromColors, GlyphSet target, String[] targetStrings,
+             int[] targetColors) {
+    mTarget = target;
+    mTargetStrings = targetStrings;
+    mTargetColors = targetColors;
+    mFromColors = fromColors;
+    mFromPaths = paths(fromGlyphs);
+    mToPaths = paths(target.mGlyphData);
+
+    PackedPathData[] from = parse(fromStrings);
+    PackedPathData[] to = from != null && fromStrings.length == targetStrings.length ? parse(targetStrings) : null;
+    if (to != null && canMorph(from, to)) {
+      int count = from.length;
+      mFrom = from;
+      mTo = to;
+      mCurrent = new PackedPathData[count];
+      mPaths = new Path[count];
+      mSinks = new PathParser.AndroidPathSink[count];
+      for (int i = 0; i < count; i++) {
+        mCurrent[i] = new PackedPathData(from[i]);
+        mPaths[i] = new Path();
+        mSinks[i] = new PathParser.AndroidPathSink(mPaths[i]);
+      }
+      mColors = new int[count];
+      mNormalizer = PathParser.createNormalizer(null);
+    } else {
+      mFrom = null;
+      mTo = null;
+      mCurrent = null;
+      mPaths = null;
+      mSinks = null;
+      mColors = null;
+      mNormalizer = null;
+    }
+  }
+
+  private static Path[] paths(GlyphData[] glyphs) {
+    Path[] paths = new Path[glyphs.length];
+    for (int i = 0; i < glyphs.length; i++) {
+      paths[i] = glyphs[i].path;
+    }
+    return paths;
+  }
+
+  /**
+   * @return the packed data of every glyph, or {@code null} if a glyph can't be parsed.
+   */
+  private static PackedPathData[] parse(String[] glyphStrings) {
+    PackedPathData[] data = new PackedPathData[glyphStrings.length];
+    try {
+      for (int i = 0; i < glyphStrings.length; i++) {
+        data[i] = PackedPathData.createFromPathData(glyphStrings[i]);
+        if (data[i] == null) {
+          return null;
+        }
+      }
+    } catch (RuntimeException e) {
+      return null;
+    }
+    return data;
+  }
+
+  private static boolean canMorph(PackedPathData[] from, PackedPathData[] to) {
+    for (int i = 0; i < from.length; i++) {
+      if (!PackedPathData.canMorph(from[i], to[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return {@code true} if the glyphs morph, {@code false} if they cross-fade.
+   */
+  boolean canMorph() {
+    return mCurrent != null;
+  }
+
+  /**
+   * Draw the transition.
+   *
+   * @param fraction
+   *     the progress of the transition from 0 to 1
+   */
+  void draw(Canvas canvas, float fraction, GlyphRenderer renderer) {
+    if (mCurrent == null) {
+      renderer.drawFilled(canvas, mFromPaths, mFromColors, 1 - fraction);
+      renderer.drawFilled(canvas, mToPaths, mTargetColors, fraction);
+      return;
+    }
+    for (int i = 0; i < mCurrent.length; i++) {
+      mCurrent[i].interpolate(mFrom[i], mTo[i], fraction);
+      mPaths[i].rewind();
+      mNormalizer.reset();
+      mNormalizer.setSink(mSinks[i]);
+      mCurrent[i].toPath(mNormalizer);
+      mColors[i] = blend(mFromColors[i], mTargetColors[i], fraction);
+    }
+    renderer.drawFilled(canvas, mPaths, mColors, 1);
+  }
+
+  private static int blend(int from, int to, float fraction) {
+    return Color.argb(
+        Math.round(Color.alpha(from) + (Color.alpha(to) - Color.alpha(from)) * fraction),
+        Math.round(Color.red(from) + (Color.red(to) - Color.red(from)) * fraction),
+        Math.round(Color.green(from) + (Color.green(to) - Color.green(from)) * fraction),
+        Math.round(Color.blue(from) + (Color.blue(to) - Color.blue(from)) * fraction));
+  }
+
+  GlyphSet getTarget() {
+    return mTarget;
+  }
+
+  String[] getTargetStrings() {
+    return mTargetStrings;
+  }
+
+  int[] getTargetColors() {
+    return mTargetColors;
+  }
+
+  /**
+   * Release the target glyphs if the transition is cancelled.
+   */
+  void release() {
+    mTarget.release();
+  }
+
+}
@@ -0,0 +1,777 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.os.Build;
+import android.util.Log;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+import com.jaredrummler.android.widget.AnimatedSvgDrawable.GlyphData;
+
+/**
+ * Draws the frames of the trace and fill animation. A renderer holds the paints, dash effects and scratch paths it
+ * draws with, so it must only be used by one thread at a time. {@link AnimatedSvgView} draws with one renderer and
+ * {@link AnimatedSvgRenderer} creates one for each worker thread.
+ */
+final class GlyphRenderer {
+
+  private static final String TAG = "AnimatedSvgView";
+
+  private static final Interpolator INTERPOLATOR = new DecelerateInterpolator();
+
+  /** The interval between two frames at 60 frames per second, rounded down. */
+  /** The frame interval of a 60 Hz display, used until the drawable knows the display it is shown on. */
+  static final float DEFAULT_FRAME_INTERVAL_MILLIS = 1000f / 60;
+
+  private static float constrain(float min, float max, float v) {
+    return Math.max(min, Math.min(max, v));
+  }
+
+  private final Paint mFillPaint;
+  private final Paint mTracePaint;
+  private final Matrix mDrawMatrix = new Matrix();
+  private final DashPathEffectPool mDashPathEffectPool = new DashPathEffectPool();
+  private final Path mResiduePath = new Path();
+  private final Path mMarkerPath = new Path();
+
+  private GlyphData[] mGlyphData;
+  /** The length of the longest contour of each glyph in pixels */
+  private float[] mLengths;
+  private int[] mTraceResidueColors;
+  private int[] mTraceColors;
+  private int[] mFillColors;
+  private int mTraceTime = 2000;
+  private int mTraceTimePerGlyph = 1000;
+  private int mFillStart = 1200;
+  private int mFillTime = 1000;
+  private float mMarkerLength;
+  private float mTraceStrokeWidth = 1;
+  private int mTraceMode = AnimatedSvgView.TRACE_MODE_DASH;
+  private int mFillStrategy = AnimatedSvgView.FILL_STRATEGY_PER_GLYPH;
+  private boolean mAllocationFreeDrawing;
+  private float mFrameIntervalMillis = DEFAULT_FRAME_INTERVAL_MILLIS;
+  private int mWidth;
+  private int mHeight;
+  private float mViewportWidth;
+  private float mViewportHeight;
+  private float mPathScale;
+  private GlyphTimeline mTimeline;
+
+  private Bitmap mFillLayer;
+  private Paint mFillLayerPaint;
+  private boolean mResidueLayerEnabled;
+  private Bitmap mResidueLayer;
+  private Canvas mResidueLayerCanvas;
+  private boolean[] mResidueBaked;
+
+  GlyphRenderer() {
+    mFillPaint = new Paint();
+    mFillPaint.setAntiAlias(true);
+    mFillPaint.setStyle(Paint.Style.FILL);
+
+    mTracePaint = new Paint();
+    mTracePaint.setStyle(Paint.Style.STROKE);
+    mTracePaint.setAntiAlias(true);
+    mTracePaint.setColor(Color.WHITE);
+    updateDashSteps();
+  }
+
+  /**
+   * Create a renderer that draws the same frames as another one. The paths of the glyphs are copied, so the new
+   * renderer can draw on another thread at the same time as the source.
+   *
+   * @param source
+   *     the renderer to copy
+   */
+  GlyphRenderer(GlyphRenderer source) {
+    this();
+    if (source.mGlyphData != null) {
+      GlyphData[] glyphData = new GlyphData[source.mGlyphData.length];
+      for (int i = 0; i < glyphData.length; i++) {
+        glyphData[i] = source.mGlyphData[i].copy();
+      }
+      mGlyphData = glyphData;
+    }
+    mTraceResidueColors = source.mTraceResidueColors;
+    mTraceColors = source.mTraceColors;
+    mFillColors = source.mFillColors;
+    mTraceTime = source.mTraceTime;
+    mTraceTimePerGlyph = source.mTraceTimePerGlyph;
+    mFillStart = source.mFillStart;
+    mFillTime = source.mFillTime;
+    mMarkerLength = source.mMarkerLength;
+    mTraceStrokeWidth = source.mTraceStrokeWidth;
+    mTraceMode = source.mTraceMode;
+    mFillStrategy = source.mFillStrategy;
+    mResidueLayerEnabled = source.mResidueLayerEnabled;
+    mAllocationFreeDrawing = source.mAllocationFreeDrawing;
+    mFrameIntervalMillis = source.mFrameIntervalMillis;
+    if (usesContourMeasures(mTraceMode)) {
+      retainContourMeasures(mGlyphData);
+    }
+    updateDashSteps();
+    setSize(source.mWidth, source.mHeight, source.mViewportWidth, source.mViewportHeight);
+  }
+
+  /**
+   * Draw the glyphs as they appear {@code t} milliseconds after the animation started.
+   *
+   * @param useLayers
+   *     {@code false} to draw every glyph without the residue and fill layers, e.g. when recording a picture.
+   */
+  void drawFrame(Canvas canvas, long t, boolean useLayers) {
+    if (mGlyphData == null) {
+      return;
+    }
+    boolean residueLayer = useLayers && mResidueLayerEnabled && prepareResidueLayer();
+    if (residueLayer) {
+      canvas.drawBitmap(mResidueLayer, 0, 0, null);
+    }
+
+    canvas.save();
+    canvas.concat(mDrawMatrix);
+
+    if (mTimeline == null) {
+      mTimeline = new GlyphTimeline(mGlyphData.length, mTraceTime, mTraceTimePerGlyph);
+    }
+    mTimeline.seek(t);
+
+    // Draw outlines (starts as traced). Glyphs that haven't started tracing draw nothing.
+    for (int i = mTimeline.getStartedFrom(); i < mTimeline.getStartedTo(); i++) {
+      if (mTimeline.isFinished(i)) {
+        if (!residueLayer) {
+          drawResidue(canvas, i);
+        } else if (!mResidueBaked[i]) {
+          // The layer was drawn before this glyph was baked, so draw it on this frame as well.
+          bakeResidue(canvas, i);
+        }
+        continue;
+      }
+      float phase = mTimeline.getPhase(i, t);
+      if (mTraceMode == AnimatedSvgView.TRACE_MODE_CONTOUR) {
+        drawTraceContours(canvas, mGlyphData[i], phase, i);
+        continue;
+      }
+      float distance = INTERPOLATOR.getInterpolation(phase) * mLengths[i];
+      if (mTraceMode == AnimatedSvgView.TRACE_MODE_SEGMENT) {
+        drawTraceSegments(canvas, mGlyphData[i], distance, phase > 0 ? mMarkerLength : 0, i);
+        continue;
+      }
+      mTracePaint.setColor(mTraceResidueColors[i]);
+      mTracePaint.setPathEffect(mDashPathEffectPool.residue(distance, mLengths[i]));
+      canvas.drawPath(mGlyphData[i].path, mTracePaint);
+
+      mTracePaint.setColor(mTraceColors[i]);
+      mTracePaint.setPathEffect(mDashPathEffectPool.marker(distance, phase > 0 ? mMarkerLength : 0, mLengths[i]));
+      canvas.drawPath(mGlyphData[i].path, mTracePaint);
+    }
+
+    canvas.restore();
+
+    if (t > mFillStart) {
+      // If after fill start, draw fill
+      float phase = constrain(0, 1, (t - mFillStart) * 1f / mFillTime);
+      // The finished frame is drawn per glyph so that it does not depend on the resolution of the layer.
+      if (!useLayers || mFillStrategy != AnimatedSvgView.FILL_STRATEGY_LAYER || phase >= 1
+          || !drawFillLayer(canvas, phase)) {
+        canvas.save();
+        canvas.concat(mDrawMatrix);
+        drawFill(canvas, phase);
+        canvas.restore();
+      }
+    }
+  }
+
+  /**
+   * Draw every glyph with its fill color and the alpha of the fill multiplied by {@code phase}.
+   */
+  private void drawFill(Canvas canvas, float phase) {
+    for (int i = 0; i < mGlyphData.length; i++) {
+      GlyphData glyphData = mGlyphData[i];
+      int fillColor = mFillColors[i];
+      int a = (int) (phase * ((float) Color.alpha(fillColor) / (float) 255) * 255);
+      int r = Color.red(fillColor);
+      int g = Color.green(fillColor);
+      int b = Color.blue(fillColor);
+      mFillPaint.setARGB(a, r, g, b);
+      canvas.drawPath(glyphData.path, mFillPaint);
+    }
+  }
+
+  /**
+   * Fill paths with the matrix the glyphs are drawn with, e.g. while morphing between two sets of glyphs.
+   *
+   * @param paths
+   *     the paths in viewport units
+   * @param colors
+   *     the fill color of each path
+   * @param phase
+   *     the alpha of the fill is multiplied by this
+   */
+  void drawFilled(Canvas canvas, Path[] paths, int[] colors, float phase) {
+    canvas.save();
+    canvas.concat(mDrawMatrix);
+    for (int i = 0; i < paths.length; i++) {
+      int fillColor = colors[i];
+      mFillPaint.setColor(fillColor);
+      mFillPaint.setAlpha((int) (phase * Color.alpha(fillColor)));
+      canvas.drawPath(paths[i], mFillPaint);
+    }
+    canvas.restore();
+  }
+
+  /**
+   * Draw the fill layer with its alpha multiplied by {@code phase}. The layer is rendered the first time it is
+   * needed, so the cost of a frame does not depend on the number of glyphs.
+   *
+   * @return {@code false} if the layer can't be rendered and the glyphs must be filled one by one.
+   */
+  private boolean drawFillLayer(Canvas canvas, float phase) {
+    if (!prepareFillLayer()) {
+      return false;
+    }
+    mFillLayerPaint.setAlpha((int) (phase * 255));
+    canvas.drawBitmap(mFillLayer, 0, 0, mFillLayerPaint);
+    return true;
+  }
+
+  /**
+   * Render the fill layer unless it already exists.
+   *
+   * @return {@code false} if the layer can't be created.
+   */
+  private boolean prepareFillLayer() {
+    if (mFillLayer != null) {
+      return true;
+    }
+    if (mWidth <= 0 || mHeight <= 0) {
+      return false;
+    }
+    try {
+      mFillLayer = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+    } catch (OutOfMemoryError e) {
+      Log.w(TAG, "Couldn't allocate the fill layer", e);
+      return false;
+    }
+    Canvas layerCanvas = new Canvas(mFillLayer);
+    layerCanvas.concat(mDrawMatrix);
+    drawFill(layerCanvas, 1);
+    if (mFillLayerPaint == null) {
+      mFillLayerPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    }
+    return true;
+  }
+
+  /**
+   * Create the timeline and the layers the animation draws with, so drawing its frames does not allocate them.
+   */
+  void prepareLayers() {
+    if (mGlyphData == null) {
+      return;
+    }
+    if (mTimeline == null) {
+      mTimeline = new GlyphTimeline(mGlyphData.length, mTraceTime, mTraceTimePerGlyph);
+    }
+    if (mResidueLayerEnabled) {
+      prepareResidueLayer();
+    }
+    if (mFillStrategy == AnimatedSvgView.FILL_STRATEGY_LAYER && mFillColors != null) {
+      prepareFillLayer();
+    }
+  }
+
+  /**
+   * Create the residue layer unless it already exists.
+   *
+   * @return {@code false} if the layer can't be created and finished glyphs must be drawn on every frame.
+   */
+  private boolean prepareResidueLayer() {
+    if (mResidueLayer != null) {
+      return true;
+    }
+    if (mWidth <= 0 || mHeight <= 0) {
+      return false;
+    }
+    try {
+      mResidueLayer = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+    } catch (OutOfMemoryError e) {
+      Log.w(TAG, "Couldn't allocate the residue layer", e);
+      mResidueLayerEnabled = false;
+      return false;
+    }
+    mResidueLayerCanvas = new Canvas(mResidueLayer);
+    mResidueLayerCanvas.concat(mDrawMatrix);
+    mResidueBaked = new boolean[mGlyphData.length];
+    return true;
+  }
+
+  /**
+   * Draw the final residue stroke of a glyph that has finished tracing. The whole path is traced, so it is drawn
+   * without a path effect.
+   */
+  private void drawResidue(Canvas canvas, int index) {
+    mTracePaint.setPathEffect(null);
+    mTracePaint.setColor(mTraceResidueColors[index]);
+    canvas.drawPath(mGlyphData[index].path, mTracePaint);
+  }
+
+  /**
+   * Draw the final residue stroke of a glyph that has finished tracing into the residue layer and onto the canvas.
+   */
+  private void bakeResidue(Canvas canvas, int index) {
+    drawResidue(mResidueLayerCanvas, index);
+    canvas.drawPath(mGlyphData[index].path, mTracePaint);
+    mResidueBaked[index] = true;
+  }
+
+  /**
+   * Draw the traced part of a glyph and its marker using {@link PathMeasure#getSegment(float, float, Path, boolean)}.
+   * The contours are measured once when the glyph is built and only the visible part of each contour is copied, so
+   * the cost depends on the traced length instead of the complexity of the entire path.
+   */
+  private void drawTraceSegments(Canvas canvas, GlyphData glyphData, float distance, float markerLength, int index) {
+    Path residuePath = mResiduePath;
+    Path markerPath = mMarkerPath;
+    residuePath.rewind();
+    markerPath.rewind();
+
+    // The paths are in viewport units while distances are in pixels.
+    distance /= mPathScale;
+    markerLength /= mPathScale;
+
+    // Dash effects restart on every contour, so extract the same range from each one.
+    PathMeasure[] contourMeasures = glyphData.contourMeasures;
+    float[] contourLengths = glyphData.contourLengths;
+    for (int c = 0; c < contourMeasures.length; c++) {
+      float length = contourLengths[c];
+      if (distance > 0) {
+        contourMeasures[c].getSegment(0, Math.min(distance, length), residuePath, true);
+      }
+      if (markerLength > 0 && distance < length) {
+        contourMeasures[c].getSegment(distance, Math.min(distance + markerLength, length), markerPath, true);
+      }
+    }
+
+    if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.KITKAT) {
+      // Segments may not be displayed on a hardware accelerated canvas on KitKat and earlier without an operation
+      // following them. See the documentation of PathMeasure#getSegment.
+      residuePath.rLineTo(0, 0);
+      markerPath.rLineTo(0, 0);
+    }
+
+    mTracePaint.setPathEffect(null);
+    mTracePaint.setColor(mTraceResidueColors[index]);
+    canvas.drawPath(residuePath, mTracePaint);
+    mTracePaint.setColor(mTraceColors[index]);
+    canvas.drawPath(markerPath, mTracePaint);
+  }
+
+  /**
+   * Draw the traced part of every contour of a glyph. Each contour advances by the same fraction of its own length,
+   * so short and long contours finish at the same time. Glyphs that have not started tracing are skipped and glyphs
+   * that have finished are drawn as a whole without measuring their contours.
+   */
+  private void drawTraceContours(Canvas canvas, GlyphData glyphData, float phase, int index) {
+    if (phase <= 0) {
+      return;
+    }
+    mTracePaint.setPathEffect(null);
+    mTracePaint.setColor(mTraceResidueColors[index]);
+    if (phase >= 1) {
+      canvas.drawPath(glyphData.path, mTracePaint);
+      return;
+    }
+
+    Path residuePath = mResiduePath;
+    Path markerPath = mMarkerPath;
+    residuePath.rewind();
+    markerPath.rewind();
+
+    float fraction = INTERPOLATOR.getInterpolation(phase);
+    // The paths are in viewport units while the marker length is in pixels.
+    float markerLength = mMarkerLength / mPathScale;
+    PathMeasure[] contourMeasures = glyphData.contourMeasures;
+    float[] contourLengths = glyphData.contourLengths;
+    for (int c = 0; c < contourMeasures.length; c++) {
+      float length = contourLengths[c];
+      float distance = fraction * length;
+      if (distance > 0) {
+        contourMeasures[c].getSegment(0, distance, residuePath, true);
+      }
+      if (markerLength > 0 && distance < length) {
+        contourMeasures[c].getSegment(distance, Math.min(distance + markerLength, length), markerPath, true);
+      }
+    }
+
+    if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.KITKAT) {
+      residuePath.rLineTo(0, 0);
+      markerPath.rLineTo(0, 0);
+    }
+
+    canvas.drawPath(residuePath, mTracePaint);
+    mTracePaint.setColor(mTraceColors[index]);
+    canvas.drawPath(markerPath, mTracePaint);
+  }
+
+  /**
+   * Set the size frames are drawn at and the viewport of the glyphs, and rescale everything that is measured in
+   * pixels. The viewport keeps its aspect ratio and is centered in the size, so strokes, markers and dashes are scaled
+   * the same along both axes. This does not parse or measure the glyphs again.
+   */
+  void setSize(int width, int height, float viewportWidth, float viewportHeight) {
+    mWidth = width;
+    mHeight = height;
+    mViewportWidth = viewportWidth;
+    mViewportHeight = viewportHeight;
+    releaseLayers();
+    mPathScale = Math.min(width / viewportWidth, height / viewportHeight);
+    mDrawMatrix.setScale(mPathScale, mPathScale);
+    mDrawMatrix.postTranslate((width - viewportWidth * mPathScale) / 2, (height - viewportHeight * mPathScale) / 2);
+
+    mTracePaint.setStrokeWidth(mPathScale > 0 ? mTraceStrokeWidth / mPathScale : mTraceStrokeWidth);
+    mDashPathEffectPool.setScale(mPathScale);
+    updateLengths();
+  }
+
+  private void updateLengths() {
+    if (mGlyphData == null) {
+      return;
+    }
+    if (mLengths == null || mLengths.length != mGlyphData.length) {
+      mLengths = new float[mGlyphData.length];
+    }
+    for (int i = 0; i < mGlyphData.length; i++) {
+      mLengths[i] = mGlyphData[i].viewportLength * mPathScale;
+    }
+    if (mAllocationFreeDrawing) {
+      prewarmDashPathEffects();
+    }
+  }
+
+  private void prewarmDashPathEffects() {
+    for (float length : mLengths) {
+      if (!mDashPathEffectPool.prewarm(length, mMarkerLength)) {
+        Log.w(TAG, "Too many dash effects to create up front. The remaining ones are created while drawing.");
+        return;
+      }
+    }
+  }
+
+  /**
+   * Trace each glyph in at most two steps per frame, so the number of dash effects does not depend on the length of
+   * the glyphs. The steps depend on the frame interval, so a glyph still moves on every frame of a fast display.
+   */
+  private void updateDashSteps() {
+    mDashPathEffectPool.setMaxSteps((int) (2 * mTraceTimePerGlyph / mFrameIntervalMillis));
+  }
+
+  /**
+   * @param frameIntervalMillis
+   *     the time between two frames of the display the frames are shown on, in milliseconds
+   */
+  void setFrameIntervalMillis(float frameIntervalMillis) {
+    if (!(frameIntervalMillis > 0) || frameIntervalMillis == mFrameIntervalMillis) {
+      return;
+    }
+    mFrameIntervalMillis = frameIntervalMillis;
+    updateDashSteps();
+    if (mAllocationFreeDrawing && mLengths != null) {
+      prewarmDashPathEffects();
+    }
+  }
+
+  void setGlyphData(GlyphData[] glyphData) {
+    if (usesContourMeasures(mTraceMode)) {
+      retainContourMeasures(glyphData);
+      releaseContourMeasures(mGlyphData);
+    }
+    mGlyphData = glyphData;
+    mTimeline = null;
+    mDashPathEffectPool.clear();
+    releaseLayers();
+    updateLengths();
+  }
+
+  GlyphData[] getGlyphData() {
+    return mGlyphData;
+  }
+
+  /**
+   * @return the number of pixels per viewport unit.
+   */
+  float getPathScale() {
+    return mPathScale;
+  }
+
+  /**
+   * @return the matrix that maps viewport units to pixels.
+   */
+  Matrix getDrawMatrix() {
+    return mDrawMatrix;
+  }
+
+  /**
+   * @return the width of the trace in viewport units.
+   */
+  float getViewportTraceStrokeWidth() {
+    return mTracePaint.getStrokeWidth();
+  }
+
+  void setTraceResidueColors(int[] traceResidueColors) {
+    mTraceResidueColors = traceResidueColors;
+    releaseLayers();
+  }
+
+  void setTraceColors(int[] traceColors) {
+    mTraceColors = traceColors;
+  }
+
+  int[] getTraceResidueColors() {
+    return mTraceResidueColors;
+  }
+
+  int[] getTraceColors() {
+    return mTraceColors;
+  }
+
+  int[] getFillColors() {
+    return mFillColors;
+  }
+
+  void setFillColors(int[] fillColors) {
+    mFillColors = fillColors;
+    releaseFillLayer();
+  }
+
+  void setTraceTime(int traceTime) {
+    mTraceTime = traceTime;
+    mTimeline = null;
+  }
+
+  void setTraceTimePerGlyph(int traceTimePerGlyph) {
+    mTraceTimePerGlyph = traceTimePerGlyph;
+    mTimeline = null;
+    updateDashSteps();
+    if (mAllocationFreeDrawing && mLengths != null) {
+      prewarmDashPathEffects();
+    }
+  }
+
+  void setFillStart(int fillStart) {
+    mFillStart = fillStart;
+  }
+
+  void setFillTime(int fillTime) {
+    mFillTime = fillTime;
+  }
+
+  int getFillStart() {
+    return mFillStart;
+  }
+
+  int getFillTime() {
+    return mFillTime;
+  }
+
+  /**
+   * @param markerLength
+   *     the length of the trace marker in pixels
+   */
+  void setMarkerLength(float markerLength) {
+    mMarkerLength = markerLength;
+    mDashPathEffectPool.clear();
+    if (mAllocationFreeDrawing && mLengths != null) {
+      prewarmDashPathEffects();
+    }
+  }
+
+  /**
+   * @param traceStrokeWidth
+   *     the width of the trace in pixels
+   */
+  void setTraceStrokeWidth(float traceStrokeWidth) {
+    mTraceStrokeWidth = traceStrokeWidth;
+    mTracePaint.setStrokeWidth(mPathScale > 0 ? mTraceStrokeWidth / mPathScale : mTraceStrokeWidth);
+  }
+
+  void setTraceMode(int traceMode) {
+    boolean used = usesContourMeasures(mTraceMode);
+    boolean uses = usesContourMeasures(traceMode);
+    mTraceMode = traceMode;
+    if (uses && !used) {
+      retainContourMeasures(mGlyphData);
+    } else if (used && !uses) {
+      releaseContourMeasures(mGlyphData);
+    }
+  }
+
+  /**
+   * @return {@code true} if the trace mode extracts segments from the contour measures of the glyphs.
+   */
+  private static boolean usesContourMeasures(int traceMode) {
+    return traceMode == AnimatedSvgView.TRACE_MODE_SEGMENT || traceMode == AnimatedSvgView.TRACE_MODE_CONTOUR;
+  }
+
+  private static void retainContourMeasures(GlyphData[] glyphData) {
+    if (glyphData != null) {
+      for (GlyphData glyph : glyphData) {
+        glyph.retainContourMeasures();
+      }
+    }
+  }
+
+  private static void releaseContourMeasures(GlyphData[] glyphData) {
+    if (glyphData != null) {
+      for (GlyphData glyph : glyphData) {
+        glyph.releaseContourMeasures();
+      }
+    }
+  }
+
+  int getTraceMode() {
+    return mTraceMode;
+  }
+
+  void setFillStrategy(int fillStrategy) {
+    mFillStrategy = fillStrategy;
+    if (fillStrategy != AnimatedSvgView.FILL_STRATEGY_LAYER) {
+      releaseFillLayer();
+    }
+  }
+
+  int getFillStrategy() {
+    return mFillStrategy;
+  }
+
+  void setResidueLayerEnabled(boolean residueLayerEnabled) {
+    mResidueLayerEnabled = residueLayerEnabled;
+    if (!residueLayerEnabled) {
+      releaseResidueLayer();
+    }
+  }
+
+  boolean isResidueLayerEnabled() {
+    return mResidueLayerEnabled;
+  }
+
+  void setAllocationFreeDrawing(boolean allocationFreeDrawing) {
+    mAllocationFreeDrawing = allocationFreeDrawing;
+    if (allocationFreeDrawing && mLengths != null) {
+      prewarmDashPathEffects();
+    }
+  }
+
+  boolean isAllocationFreeDrawing() {
+    return mAllocationFreeDrawing;
+  }
+
+  /**
+   * Check that every glyph has a trace, trace residue and fill color.
+   *
+   * @throws IllegalStateException
+   *     if a color is missing.
+   */
+  void checkColors() {
+    int glyphCount = mGlyphData != null ? mGlyphData.length : 0;
+    if (mTraceResidueColors == null || mTraceResidueColors.length < glyphCount) {
+      throw new IllegalStateException("Missing trace residue colors for " + glyphCount + " glyphs");
+    }
+    if (mTraceColors == null || mTraceColors.length < glyphCount) {
+      throw new IllegalStateException("Missing trace colors for " + glyphCount + " glyphs");
+    }
+    if (mFillColors == null || mFillColors.length < glyphCount) {
+      throw new IllegalStateException("Missing fill colors for " + glyphCount + " glyphs");
+    }
+  }
+
+  /**
+   * @return the time at which every glyph has been traced.
+   */
+  long getTraceEndTime() {
+    return Math.max(mTraceTime, mTraceTimePerGlyph);
+  }
+
+  /**
+   * @return the time since the start of the animation at which every glyph is traced and filled.
+   */
+  long getFinishedTime() {
+    return Math.max(getTraceEndTime(), mFillStart + mFillTime);
+  }
+
+  /**
+   * @return the length of all contours of all glyphs in pixels.
+   */
+  float getTotalPathLength() {
+    float totalPathLength = 0;
+    if (mGlyphData != null) {
+      for (GlyphData glyphData : mGlyphData) {
+        totalPathLength += glyphData.viewportTotalLength * mPathScale;
+      }
+    }
+    return totalPathLength;
+  }
+
+  /**
+   * @return the number of glyphs that had started tracing in the last frame drawn.
+   */
+  int getStartedGlyphCount() {
+    return mTimeline != null ? mTimeline.getStartedTo() - mTimeline.getStartedFrom() : 0;
+  }
+
+  /**
+   * @return the number of dash effects created since this renderer was created.
+   */
+  int getDashPathEffectsCreated() {
+    return mDashPathEffectPool.getCreatedCount();
+  }
+
+  /**
+   * Drop the residue layer so that glyphs are baked again, e.g. when the animation restarts.
+   */
+  void releaseResidueLayer() {
+    if (mResidueLayer != null) {
+      mResidueLayer.recycle();
+      mResidueLayer = null;
+      mResidueLayerCanvas = null;
+      mResidueBaked = null;
+    }
+  }
+
+  private void releaseFillLayer() {
+    if (mFillLayer != null) {
+      mFillLayer.recycle();
+      mFillLayer = null;
+    }
+  }
+
+  /**
+   * Drop the residue and fill layers. They are rendered again the next time they are needed.
+   */
+  void releaseLayers() {
+    releaseFillLayer();
+    releaseResidueLayer();
+  }
+
+}
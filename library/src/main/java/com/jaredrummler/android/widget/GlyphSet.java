@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import com.jaredrummler.android.widget.AnimatedSvgDrawable.GlyphData;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The parsed and measured glyphs of an SVG. Glyphs are kept in viewport units, so one set can be drawn by any number
+ * of views at any size. A glyph set is never modified after it is built and can be shared between threads. Only the
+ * glyphs simplified for the sizes the set is drawn at, and the contour measures of glyphs traced by segment or by
+ * contour, are added to it later.
+ *
+ * <p>Glyph sets are reference counted by the {@link GlyphSetRegistry} that built them. Every
+ * {@link GlyphSetRegistry#acquire(String[], boolean) acquire} or {@link GlyphSetRegistry#retain(GlyphSet) retain}
+ * must be balanced by a {@link #release()}.</p>
+ */
+public final class GlyphSet {
+
+  /** The estimated size of a glyph on the Java heap in bytes, besides its contour lengths. */
+  private static final int GLYPH_OVERHEAD_BYTES = 64;
+  /** The estimated size of an empty native path in bytes. */
+  private static final int PATH_OVERHEAD_BYTES = 96;
+  /** The estimated size of a point of a native path in bytes, including its verb. */
+  private static final int PATH_POINT_BYTES = 9;
+
+  private final GlyphSetRegistry mRegistry;
+  /** The path data the glyphs were built from, compared by content. */
+  final List<String> mKey;
+  final GlyphData[] mGlyphData;
+  /** The simplified glyphs, shared by every view that draws this set. */
+  final GlyphLodCache mLodCache;
+  private final float mTotalLength;
+  private final long mRetainedBytes;
+  /** Guarded by the registry. */
+  int mReferenceCount;
+
+  /**
+   * @param registry
+   *     the registry that counts the references, or {@code null} if the set is not shared
+   * @param glyphStrings
+   *     the path data of the glyphs. The array must not be modified.
+   * @param glyphData
+   *     the glyphs built from the path data
+   */
+  GlyphSet(GlyphSetRegistry registry, String[] glyphStrings, GlyphData[] glyphData) {
+    mRegistry = registry;
+    mKey = Arrays.asList(glyphStrings);
+    mGlyphData = glyphData;
+    mLodCache = new GlyphLodCache(glyphStrings);
+    float totalLength = 0;
+    long retainedBytes = 0;
+    for (String glyphString : glyphStrings) {
+      retainedBytes += glyphString != null ? 2L * glyphString.length() : 0;
+    }
+    for (GlyphData glyph : glyphData) {
+      totalLength += glyph.viewportTotalLength;
+      retainedBytes += GLYPH_OVERHEAD_BYTES + 4L * glyph.contourLengths.length + PATH_OVERHEAD_BYTES
+          + (long) PATH_POINT_BYTES * glyph.pointCount;
+    }
+    mTotalLength = totalLength;
+    mRetainedBytes = retainedBytes;
+  }
+
+  /**
+   * @return the number of glyphs.
+   */
+  public int getGlyphCount() {
+    return mGlyphData.length;
+  }
+
+  /**
+   * @return the sum of the lengths of all glyphs in viewport units.
+   */
+  public float getTotalLength() {
+    return mTotalLength;
+  }
+
+  /**
+   * @return the estimated memory used by the glyphs and their path data in bytes, including the native paths. The
+   * contour measures built while the glyphs are traced by segment or by contour are not included.
+   */
+  public long getRetainedBytes() {
+    return mRetainedBytes;
+  }
+
+  /**
+   * @return the number of holders of this set, or 0 if it is not shared.
+   */
+  public int getReferenceCount() {
+    if (mRegistry == null) {
+      return 0;
+    }
+    synchronized (mRegistry) {
+      return mReferenceCount;
+    }
+  }
+
+  GlyphSetRegistry getRegistry() {
+    return mRegistry;
+  }
+
+  /**
+   * Release a reference to this set. The registry forgets the set when its last reference is released. Releasing
+   * never frees or changes the glyphs, so a holder that still has the set can {@link GlyphSetRegistry#retain(GlyphSet)
+   * retain} it again and draw the same glyphs without building them again.
+   */
+  public void release() {
+    if (mRegistry != null) {
+      mRegistry.release(this);
+    }
+  }
+
+}
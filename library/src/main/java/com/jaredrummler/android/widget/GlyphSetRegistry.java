@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import androidx.annotation.NonNull;
+import com.jaredrummler.android.widget.AnimatedSvgDrawable.GlyphData;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares {@link GlyphSet}s between views that show the same SVG. The glyphs of an SVG are parsed and measured by the
+ * first view that needs them and re-used by every other view until the last one releases them.
+ *
+ * <p>All methods are thread safe.</p>
+ *
+ * @see AnimatedSvgView#setGlyphSetRegistry(GlyphSetRegistry)
+ */
+public final class GlyphSetRegistry {
+
+  private static final GlyphSetRegistry DEFAULT = new GlyphSetRegistry();
+
+  private final Map<List<String>, GlyphSet> mGlyphSets = new HashMap<>();
+  private long mRetainedBytes;
+  private int mHitCount;
+  private int mMissCount;
+
+  /**
+   * @return the registry used by every {@link AnimatedSvgView} unless another one is set.
+   */
+  @NonNull public static GlyphSetRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Get the glyph set for the given path data, building it if no holder has it yet. The caller holds a reference to
+   * the returned set until it calls {@link GlyphSet#release()}.
+   *
+   * <p>Building the glyphs can take a while for large SVGs, so this should be called on a background thread unless
+   * the set is known to be registered already.</p>
+   *
+   * @param glyphStrings
+   *     The path data of the glyphs
+   * @param parallel
+   *     {@code true} to build the glyphs on multiple threads if they have to be built.
+   * @return the shared glyph set
+   */
+  @NonNull public GlyphSet acquire(@NonNull String[] glyphStrings, boolean parallel) {
+    List<String> key = Arrays.asList(glyphStrings);
+    synchronized (this) {
+      GlyphSet glyphSet = mGlyphSets.get(key);
+      if (glyphSet != null) {
+        mHitCount++;
+        glyphSet.mReferenceCount++;
+        return glyphSet;
+      }
+      mMissCount++;
+    }
+    // Build the glyphs without holding the lock so that other SVGs can be acquired meanwhile. The path data is copied
+    // because the set is keyed by it.
+    String[] copy = glyphStrings.clone();
+    GlyphData[] glyphData = AnimatedSvgDrawable.createGlyphData(copy, parallel);
+    GlyphSet built = new GlyphSet(this, copy, glyphData);
+    synchronized (this) {
+      GlyphSet glyphSet = mGlyphSets.get(key);
+      if (glyphSet == null) {
+        glyphSet = built;
+        register(glyphSet);
+      }
+      glyphSet.mReferenceCount++;
+      return glyphSet;
+    }
+  }
+
+  /**
+   * Add a reference to a glyph set, registering it again if all of its references were released. Use this to hold a
+   * set again after releasing it without building its glyphs again.
+   *
+   * @param glyphSet
+   *     A set acquired from this registry
+   */
+  public synchronized void retain(@NonNull GlyphSet glyphSet) {
+    if (glyphSet.mReferenceCount == 0 && !mGlyphSets.containsKey(glyphSet.mKey)) {
+      register(glyphSet);
+    }
+    glyphSet.mReferenceCount++;
+  }
+
+  synchronized void release(GlyphSet glyphSet) {
+    if (glyphSet.mReferenceCount <= 0) {
+      throw new IllegalStateException("GlyphSet released more often than it was acquired");
+    }
+    if (--glyphSet.mReferenceCount == 0 && mGlyphSets.get(glyphSet.mKey) == glyphSet) {
+      mGlyphSets.remove(glyphSet.mKey);
+      mRetainedBytes -= glyphSet.getRetainedBytes();
+    }
+  }
+
+  private void register(GlyphSet glyphSet) {
+    mGlyphSets.put(glyphSet.mKey, glyphSet);
+    mRetainedBytes += glyphSet.getRetainedBytes();
+  }
+
+  /**
+   * @return the number of times a registered set was re-used.
+   */
+  public synchronized int getHitCount() {
+    return mHitCount;
+  }
+
+  /**
+   * @return the number of times a set had to be built.
+   */
+  public synchronized int getMissCount() {
+    return mMissCount;
+  }
+
+  /**
+   * @return the number of glyph sets that have at least one holder.
+   */
+  public synchronized int getGlyphSetCount() {
+    return mGlyphSets.size();
+  }
+
+  /**
+   * @return the estimated memory used by all registered glyph sets in bytes.
+   * @see GlyphSet#getRetainedBytes()
+   */
+  public synchronized long getRetainedBytes() {
+    return mRetainedBytes;
+  }
+
+}
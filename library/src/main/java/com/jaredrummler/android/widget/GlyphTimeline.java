@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+/**
+ * The trace window of every glyph. Glyph {@code i} of {@code n} starts tracing at
+ * {@code (traceTime - traceTimePerGlyph) * i / n} and traces for {@code traceTimePerGlyph} milliseconds, so the start
+ * times are sorted (ascending, or descending if the time per glyph is longer than the trace time). After
+ * {@link #seek(long)} the glyphs that have started and the glyphs that are still tracing are each a contiguous range
+ * of glyph indices found with a binary search.
+ */
+final class GlyphTimeline {
+
+  private final float[] mStarts;
+  private final int mDuration;
+  private final boolean mAscending;
+
+  private int mStartedFrom;
+  private int mStartedTo;
+  private int mActiveFrom;
+  private int mActiveTo;
+
+  /**
+   * @param glyphCount
+   *     the number of glyphs
+   * @param traceTime
+   *     the time to trace all glyphs in milliseconds
+   * @param traceTimePerGlyph
+   *     the time to trace one glyph in milliseconds
+   */
+  GlyphTimeline(int glyphCount, int traceTime, int traceTimePerGlyph) {
+    mStarts = new float[glyphCount];
+    for (int i = 0; i < glyphCount; i++) {
+      mStarts[i] = (traceTime - traceTimePerGlyph) * i * 1f / glyphCount;
+    }
+    mDuration = traceTimePerGlyph;
+    mAscending = traceTime >= traceTimePerGlyph;
+  }
+
+  /**
+   * Find the glyphs that have started and the glyphs that are still tracing at the given time.
+   *
+   * @param t
+   *     the time since the animation started in milliseconds
+   */
+  void seek(long t) {
+    int started = countBefore(t, 0);
+    int finished = countBefore(t, mDuration);
+    if (mAscending) {
+      mStartedFrom = 0;
+      mStartedTo = started;
+      mActiveFrom = finished;
+      mActiveTo = started;
+    } else {
+      int n = mStarts.length;
+      mStartedFrom = n - started;
+      mStartedTo = n;
+      mActiveFrom = n - started;
+      mActiveTo = n - finished;
+    }
+  }
+
+  /**
+   * @return the first glyph that has started tracing.
+   */
+  int getStartedFrom() {
+    return mStartedFrom;
+  }
+
+  /**
+   * @return one past the last glyph that has started tracing.
+   */
+  int getStartedTo() {
+    return mStartedTo;
+  }
+
+  /**
+   * @param index
+   *     a glyph that has started tracing
+   * @return {@code true} if the glyph has finished tracing.
+   */
+  boolean isFinished(int index) {
+    return index < mActiveFrom || index >= mActiveTo;
+  }
+
+  /**
+   * @param index
+   *     the glyph
+   * @param t
+   *     the time since the animation started in milliseconds
+   * @return the trace phase of the glyph, between 0 and 1.
+   */
+  float getPhase(int index, long t) {
+    if (mDuration <= 0) {
+      return t >= mStarts[index] ? 1 : 0;
+    }
+    return Math.max(0, Math.min(1, (t - mStarts[index]) * 1f / mDuration));
+  }
+
+  /**
+   * Count the glyphs with {@code start + offset < t}, i.e. that started ({@code offset} 0) or finished
+   * ({@code offset} duration) before {@code t}.
+   */
+  private int countBefore(long t, int offset) {
+    int low = 0;
+    int high = mStarts.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      // Look at the glyphs from the earliest start to the latest one.
+      int index = mAscending ? mid : mStarts.length - 1 - mid;
+      if (mStarts[index] + offset < t) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.view.View;
+
+/**
+ * The layer type an {@link AnimatedSvgView} chose for its {@link AnimatedSvgView#setLayerStrategy(int) layer
+ * strategy} and the inputs the choice was based on.
+ */
+public final class LayerDecision {
+
+  private final int mStrategy;
+  private final int mLayerType;
+  private final int mGlyphCount;
+  private final float mTotalPathLength;
+  private final long mViewArea;
+
+  LayerDecision(int strategy, int layerType, int glyphCount, float totalPathLength, long viewArea) {
+    mStrategy = strategy;
+    mLayerType = layerType;
+    mGlyphCount = glyphCount;
+    mTotalPathLength = totalPathLength;
+    mViewArea = viewArea;
+  }
+
+  /**
+   * @return the requested strategy. One of the {@code LAYER_STRATEGY_*} constants in {@link AnimatedSvgView}.
+   */
+  @AnimatedSvgView.LayerStrategy public int getStrategy() {
+    return mStrategy;
+  }
+
+  /**
+   * @return the layer type applied to the view. Either {@link View#LAYER_TYPE_NONE},
+   * {@link View#LAYER_TYPE_SOFTWARE} or {@link View#LAYER_TYPE_HARDWARE}.
+   */
+  public int getLayerType() {
+    return mLayerType;
+  }
+
+  /**
+   * @return the number of glyphs.
+   */
+  public int getGlyphCount() {
+    return mGlyphCount;
+  }
+
+  /**
+   * @return the length of all contours of all glyphs in pixels.
+   */
+  public float getTotalPathLength() {
+    return mTotalPathLength;
+  }
+
+  /**
+   * @return the width of the view multiplied by its height.
+   */
+  public long getViewArea() {
+    return mViewArea;
+  }
+
+  @Override public String toString() {
+    return "LayerDecision{strategy=" + mStrategy + ", layerType=" + mLayerType + ", glyphCount=" + mGlyphCount
+        + ", totalPathLength=" + mTotalPathLength + ", viewArea=" + mViewArea + "}";
+  }
+
+}
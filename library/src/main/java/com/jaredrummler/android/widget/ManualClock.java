@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+/**
+ * An {@link AnimationClock} that only moves when it is told to. Use it to render specific frames in tests and when
+ * rendering without a display. A view driven by a manual clock does not schedule frames by itself; invalidate it
+ * after moving the clock.
+ */
+public final class ManualClock implements AnimationClock {
+
+  private long mTimeMillis;
+
+  public ManualClock() {
+  }
+
+  /**
+   * @param timeMillis
+   *     the initial time in milliseconds
+   */
+  public ManualClock(long timeMillis) {
+    mTimeMillis = timeMillis;
+  }
+
+  @Override public long getTimeMillis() {
+    return mTimeMillis;
+  }
+
+  /**
+   * @return {@code true}, the clock only moves when it is told to.
+   */
+  @Override public boolean isManual() {
+    return true;
+  }
+
+  /**
+   * Set the current time.
+   *
+   * @param timeMillis
+   *     the time in milliseconds
+   */
+  public void setTimeMillis(long timeMillis) {
+    mTimeMillis = timeMillis;
+  }
+
+  /**
+   * Move the clock forward.
+   *
+   * @param millis
+   *     the number of milliseconds to add to the current time
+   */
+  public void advance(long millis) {
+    mTimeMillis += millis;
+  }
+
+}
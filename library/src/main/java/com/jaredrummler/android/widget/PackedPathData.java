@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Path;
+import com.jaredrummler.android.path.PathNormalizer;
+import com.jaredrummler.android.path.PathSink;
+import com.jaredrummler.android.path.PathTokenizer;
+import com.jaredrummler.android.widget.PathParser.PathDataNode;
+
+/**
+ * A compact alternative to an array of {@link PathDataNode}s. The commands are stored in a single {@code byte[]} and
+ * the parameters of all commands in a single contiguous {@code float[]}, so a path costs three arrays instead of two
+ * objects per command.
+ */
+final class PackedPathData {
+
+  /** The approximate size of an object header on the VM. */
+  private static final int OBJECT_HEADER_SIZE = 12;
+  /** The approximate size of an array header on the VM. */
+  private static final int ARRAY_HEADER_SIZE = 16;
+  /** The approximate size of a reference on the VM. */
+  private static final int REFERENCE_SIZE = 4;
+
+  /** The command of each node */
+  final byte[] mTypes;
+  /** The parameters of all nodes */
+  final float[] mParams;
+  /** The index of the first parameter of each node in {@link #mParams}, followed by the number of parameters */
+  final int[] mOffsets;
+
+  private PackedPathData(byte[] types, float[] params, int[] offsets) {
+    mTypes = types;
+    mParams = params;
+    mOffsets = offsets;
+  }
+
+  /**
+   * Create a deep copy of the packed path data.
+   *
+   * @param source
+   *     The data to copy
+   */
+  PackedPathData(PackedPathData source) {
+    mTypes = new byte[source.mTypes.length];
+    System.arraycopy(source.mTypes, 0, mTypes, 0, mTypes.length);
+    mParams = PathParser.copyOfRange(source.mParams, 0, source.mParams.length);
+    mOffsets = new int[source.mOffsets.length];
+    System.arraycopy(source.mOffsets, 0, mOffsets, 0, mOffsets.length);
+  }
+
+  /**
+   * @param pathData
+   *     The string representing a path, the same as "d" string in svg file.
+   * @return the packed path data or {@code null} if the path data is {@code null}.
+   */
+  static PackedPathData createFromPathData(CharSequence pathData) {
+    if (pathData == null) {
+      return null;
+    }
+    final Builder builder = new Builder();
+    PathTokenizer.tokenize(pathData, new PathTokenizer.CommandHandler() {
+      @Override public void onCommand(char cmd, float[] val, int count) {
+        builder.add(cmd, val, 0, count);
+      }
+    });
+    return builder.build();
+  }
+
+  /**
+   * @param nodes
+   *     The path represented in an array of PathDataNode
+   * @return the packed path data or {@code null} if the nodes are {@code null}.
+   */
+  static PackedPathData createFromNodes(PathDataNode[] nodes) {
+    if (nodes == null) {
+      return null;
+    }
+    Builder builder = new Builder();
+    for (PathDataNode node : nodes) {
+      builder.add(node.mType, node.mParams, 0, node.mParams.length);
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return the number of commands.
+   */
+  int size() {
+    return mTypes.length;
+  }
+
+  /**
+   * Convert the packed data to a Path. Equivalent to {@link PathDataNode#nodesToPath(PathDataNode[], Path)}.
+   *
+   * @param path
+   *     The target Path object.
+   */
+  void toPath(Path path) {
+    toPath(new PathParser.AndroidPathSink(path));
+  }
+
+  /**
+   * Send the packed data to a PathSink. Equivalent to {@link PathDataNode#nodesToPath(PathDataNode[], PathSink)}.
+   *
+   * @param sink
+   *     The sink that receives the segments of the path.
+   */
+  void toPath(PathSink sink) {
+    toPath(PathParser.createNormalizer(sink));
+  }
+
+  /**
+   * Send the packed data to a normalizer without allocating, e.g. to rewrite a path on every frame. The normalizer
+   * should be {@link PathNormalizer#reset() reset} before each path.
+   *
+   * @param normalizer
+   *     The normalizer that sends the segments of the path to its sink.
+   */
+  void toPath(PathNormalizer normalizer) {
+    for (int i = 0; i < mTypes.length; i++) {
+      normalizer.addCommand((char) mTypes[i], mParams, mOffsets[i], mOffsets[i + 1] - mOffsets[i]);
+    }
+  }
+
+  /**
+   * Equivalent to {@link PathParser#canMorph(PathDataNode[], PathDataNode[])}.
+   *
+   * @param from
+   *     The source path
+   * @param to
+   *     The target path
+   * @return whether {@code from} can morph into {@code to}
+   */
+  static boolean canMorph(PackedPathData from, PackedPathData to) {
+    if (from == null || to == null) {
+      return false;
+    }
+    if (from.mTypes.length != to.mTypes.length) {
+      return false;
+    }
+    for (int i = 0; i < from.mTypes.length; i++) {
+      if (from.mTypes[i] != to.mTypes[i]
+          || from.mOffsets[i + 1] - from.mOffsets[i] != to.mOffsets[i + 1] - to.mOffsets[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Update the target's data to match the source. Equivalent to
+   * {@link PathParser#updateNodes(PathDataNode[], PathDataNode[])}.
+   * Before calling this, make sure canMorph(target, source) is true.
+   *
+   * @param target
+   *     The target path
+   * @param source
+   *     The source path
+   */
+  static void updateData(PackedPathData target, PackedPathData source) {
+    System.arraycopy(source.mTypes, 0, target.mTypes, 0, source.mTypes.length);
+    System.arraycopy(source.mParams, 0, target.mParams, 0, source.mParams.length);
+  }
+
+  /**
+   * Interpolate every command between {@code from} and {@code to} according to the {@code fraction}. Equivalent to
+   * calling {@link PathDataNode#interpolatePathDataNode(PathDataNode, PathDataNode, float)} on every node.
+   * Before calling this, make sure canMorph(from, to) and canMorph(this, from) are true.
+   *
+   * @param from
+   *     The start value
+   * @param to
+   *     The end value
+   * @param fraction
+   *     The fraction to interpolate.
+   */
+  void interpolate(PackedPathData from, PackedPathData to, float fraction) {
+    float[] fromParams = from.mParams;
+    float[] toParams = to.mParams;
+    for (int i = 0; i < fromParams.length; i++) {
+      mParams[i] = fromParams[i] * (1 - fraction) + toParams[i] * fraction;
+    }
+  }
+
+  /**
+   * @return the approximate number of bytes retained by this object.
+   */
+  long estimateSizeInBytes() {
+    return OBJECT_HEADER_SIZE + 3 * REFERENCE_SIZE
+        + align(ARRAY_HEADER_SIZE + mTypes.length)
+        + align(ARRAY_HEADER_SIZE + 4L * mParams.length)
+        + align(ARRAY_HEADER_SIZE + 4L * mOffsets.length);
+  }
+
+  /**
+   * @param nodes
+   *     The path represented in an array of PathDataNode
+   * @return the approximate number of bytes retained by the nodes, for comparison with
+   * {@link #estimateSizeInBytes()}.
+   */
+  static long estimateSizeInBytes(PathDataNode[] nodes) {
+    long size = align(ARRAY_HEADER_SIZE + (long) REFERENCE_SIZE * nodes.length);
+    for (PathDataNode node : nodes) {
+      size += align(OBJECT_HEADER_SIZE + 2 + REFERENCE_SIZE);
+      size += align(ARRAY_HEADER_SIZE + 4L * node.mParams.length);
+    }
+    return size;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7;
+  }
+
+  private static final class Builder {
+
+    private byte[] mTypes = new byte[16];
+    private float[] mParams = new float[64];
+    private int[] mOffsets = new int[17];
+    private int mSize;
+
+    void add(char cmd, float[] val, int offset, int count) {
+      if (cmd > Byte.MAX_VALUE) {
+        throw new IllegalArgumentException("Invalid path command '" + cmd + "'");
+      }
+      if (mSize == mTypes.length) {
+        byte[] types = new byte[mSize * 2];
+        System.arraycopy(mTypes, 0, types, 0, mSize);
+        mTypes = types;
+        int[] offsets = new int[mSize * 2 + 1];
+        System.arraycopy(mOffsets, 0, offsets, 0, mSize + 1);
+        mOffsets = offsets;
+      }
+      int start = mOffsets[mSize];
+      if (start + count > mParams.length) {
+        mParams = PathParser.copyOfRange(mParams, 0, Math.max(mParams.length * 2, start + count));
+      }
+      System.arraycopy(val, offset, mParams, start, count);
+      mTypes[mSize] = (byte) cmd;
+      mOffsets[++mSize] = start + count;
+    }
+
+    PackedPathData build() {
+      byte[] types = new byte[mSize];
+      System.arraycopy(mTypes, 0, types, 0, mSize);
+      int[] offsets = new int[mSize + 1];
+      System.arraycopy(mOffsets, 0, offsets, 0, mSize + 1);
+      return new PackedPathData(types, PathParser.copyOfRange(mParams, 0, mOffsets[mSize]), offsets);
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+/**
+ * How much the glyphs of an {@link AnimatedSvgView} were simplified for the size they are drawn at.
+ *
+ * @see AnimatedSvgView#setSimplificationTolerance(float)
+ */
+public final class SimplificationStats {
+
+  private final float mTolerance;
+  private final float mScale;
+  private final int mInputSegmentCount;
+  private final int mOutputSegmentCount;
+  private final int mCachedSizeCount;
+
+  SimplificationStats(float tolerance, float scale, int inputSegmentCount, int outputSegmentCount,
+                      int cachedSizeCount) {
+    mTolerance = tolerance;
+    mScale = scale;
+    mInputSegmentCount = inputSegmentCount;
+    mOutputSegmentCount = outputSegmentCount;
+    mCachedSizeCount = cachedSizeCount;
+  }
+
+  /**
+   * @return the maximum distance between the original and the simplified glyphs in pixels.
+   */
+  public float getTolerance() {
+    return mTolerance;
+  }
+
+  /**
+   * @return the number of pixels per viewport unit the glyphs were simplified for. This is the drawing scale rounded
+   * up to a power of two, so views of similar sizes share the same simplified glyphs.
+   */
+  public float getScale() {
+    return mScale;
+  }
+
+  /**
+   * @return the number of lines and curves in the original glyphs.
+   */
+  public int getInputSegmentCount() {
+    return mInputSegmentCount;
+  }
+
+  /**
+   * @return the number of lines in the simplified glyphs.
+   */
+  public int getOutputSegmentCount() {
+    return mOutputSegmentCount;
+  }
+
+  /**
+   * @return the number of segments removed. This is negative if flattening the curves added more lines than
+   * thinning removed.
+   */
+  public int getRemovedSegmentCount() {
+    return mInputSegmentCount - mOutputSegmentCount;
+  }
+
+  /**
+   * @return the number of sizes the glyphs are currently simplified and cached for.
+   */
+  public int getCachedSizeCount() {
+    return mCachedSizeCount;
+  }
+
+  @Override public String toString() {
+    return "SimplificationStats{tolerance=" + mTolerance + ", scale=" + mScale + ", inputSegmentCount="
+        + mInputSegmentCount + ", outputSegmentCount=" + mOutputSegmentCount + ", cachedSizeCount="
+        + mCachedSizeCount + "}";
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.graphics.Color;
+import androidx.annotation.NonNull;
+
+/**
+ * The paths, colors and viewport read from an SVG file by {@link SvgLoader}.
+ */
+public final class SvgDocument {
+
+  /** The alpha of the trace residue relative to the trace color, the same as the default residue color of the view. */
+  private static final int TRACE_RESIDUE_ALPHA = 50;
+
+  private final float mViewportWidth;
+  private final float mViewportHeight;
+  private final String[] mGlyphStrings;
+  private final int[] mFillColors;
+  private final int[] mStrokeColors;
+  private final boolean mHasStrokes;
+
+  SvgDocument(float viewportWidth, float viewportHeight, String[] glyphStrings, int[] fillColors, int[] strokeColors,
+              boolean hasStrokes) {
+    mViewportWidth = viewportWidth;
+    mViewportHeight = viewportHeight;
+    mGlyphStrings = glyphStrings;
+    mFillColors = fillColors;
+    mStrokeColors = strokeColors;
+    mHasStrokes = hasStrokes;
+  }
+
+  /**
+   * @return the width of the viewBox.
+   */
+  public float getViewportWidth() {
+    return mViewportWidth;
+  }
+
+  /**
+   * @return the height of the viewBox.
+   */
+  public float getViewportHeight() {
+    return mViewportHeight;
+  }
+
+  /**
+   * @return the path data of every path in document order. Group and path transforms are already applied.
+   */
+  @NonNull public String[] getGlyphStrings() {
+    return mGlyphStrings;
+  }
+
+  /**
+   * @return the fill color of every path, with the opacity applied. Paths that are not filled are transparent.
+   */
+  @NonNull public int[] getFillColors() {
+    return mFillColors;
+  }
+
+  /**
+   * @return the stroke color of every path, with the opacity applied. Paths without a stroke are transparent.
+   */
+  @NonNull public int[] getStrokeColors() {
+    return mStrokeColors;
+  }
+
+  /**
+   * @return {@code true} if at least one path has a stroke.
+   */
+  public boolean hasStrokes() {
+    return mHasStrokes;
+  }
+
+  /**
+   * @return the number of paths.
+   */
+  public int getGlyphCount() {
+    return mGlyphStrings.length;
+  }
+
+  /**
+   * Set the viewport, path data and colors of the view and rebuild its glyphs. Paths are traced with their stroke
+   * color, or their fill color if they have no stroke, and leave a faint residue of the same color.
+   *
+   * @param view
+   *     the view to show this document
+   */
+  public void applyTo(@NonNull AnimatedSvgView view) {
+    view.setViewportSize(mViewportWidth, mViewportHeight);
+    applyTo(view.getDrawable());
+  }
+
+  /**
+   * Set the viewport, path data and colors of the drawable and rebuild its glyphs. Paths are traced with their stroke
+   * color, or their fill color if they have no stroke, and leave a faint residue of the same color.
+   *
+   * @param drawable
+   *     the drawable to show this document
+   */
+  public void applyTo(@NonNull AnimatedSvgDrawable drawable) {
+    drawable.setViewportSize(mViewportWidth, mViewportHeight);
+    drawable.setGlyphStrings(mGlyphStrings);
+    drawable.setFillColors(mFillColors);
+    // Every glyph needs a trace and a residue color, or drawing the first traced frame fails.
+    int[] traceColors = new int[mGlyphStrings.length];
+    int[] traceResidueColors = new int[mGlyphStrings.length];
+    for (int i = 0; i < traceColors.length; i++) {
+      int color = mStrokeColors[i] != 0 ? mStrokeColors[i] : mFillColors[i];
+      traceColors[i] = color;
+      traceResidueColors[i] = (color & 0x00ffffff) | (Color.alpha(color) * TRACE_RESIDUE_ALPHA / 255 << 24);
+    }
+    drawable.setTraceColors(traceColors);
+    drawable.setTraceResidueColors(traceResidueColors);
+    drawable.rebuildGlyphData();
+  }
+
+}
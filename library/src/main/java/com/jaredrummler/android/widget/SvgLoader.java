@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.widget;
+
+import android.content.Context;
+import android.graphics.Color;
+import android.util.Xml;
+import androidx.annotation.NonNull;
+import androidx.annotation.RawRes;
+import com.jaredrummler.android.path.PathDataWriter;
+import com.jaredrummler.android.path.TransformSink;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+/**
+ * Reads the paths of an SVG file into an {@link SvgDocument}.
+ *
+ * <p>The file is read in a single pass with a pull parser, so only the element being parsed is held in memory
+ * besides the result. The {@code viewBox}, {@code <path>} elements, {@code fill}, {@code stroke} and their opacities
+ * (as attributes or in a {@code style}) and the {@code transform}s of groups and paths are supported. Transforms are
+ * applied to the path data. Other shapes, text, gradients and the contents of {@code <defs>}, {@code <clipPath>},
+ * {@code <mask>}, {@code <pattern>} and {@code <symbol>} are ignored.</p>
+ *
+ * <pre>
+ * SvgLoader.loadAsset(context, "logo.svg").applyTo(animatedSvgView);
+ * </pre>
+ */
+public final class SvgLoader {
+
+  private static final int NONE = Color.TRANSPARENT;
+
+  private SvgLoader() {
+    throw new AssertionError("no instances");
+  }
+
+  /**
+   * Read an SVG file from the assets.
+   *
+   * @param context
+   *     the context used to open the asset
+   * @param fileName
+   *     the path of the file in the assets
+   * @return the document
+   * @throws IOException
+   *     if the file could not be read or is not a valid SVG file
+   */
+  @NonNull public static SvgDocument loadAsset(@NonNull Context context, @NonNull String fileName)
+      throws IOException {
+    InputStream in = context.getAssets().open(fileName);
+    try {
+      return load(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Read an SVG file from the raw resources.
+   *
+   * @param context
+   *     the context used to open the resource
+   * @param id
+   *     the resource id, e.g. {@code R.raw.logo}
+   * @return the document
+   * @throws IOException
+   *     if the file could not be read or is not a valid SVG file
+   */
+  @NonNull public static SvgDocument loadRawResource(@NonNull Context context, @RawRes int id) throws IOException {
+    InputStream in = context.getResources().openRawResource(id);
+    try {
+      return load(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Read an SVG file. The stream is not closed.
+   *
+   * @param in
+   *     the stream to read the file from
+   * @return the document
+   * @throws IOException
+   *     if the stream could not be read or is not a valid SVG file
+   */
+  @NonNull public static SvgDocument load(@NonNull InputStream in) throws IOException {
+    try {
+      XmlPullParser parser = Xml.newPullParser();
+      parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
+      parser.setInput(in, null);
+      return new Reader(parser).read();
+    } catch (XmlPullParserException e) {
+      throw new IOException("Invalid SVG: " + e.getMessage(), e);
+    } catch (RuntimeException e) {
+      throw new IOException("Invalid SVG: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * The inherited attributes of an element.
+   */
+  private static final class Style {
+
+    final float[] matrix;
+    int fill;
+    int stroke;
+    float fillOpacity;
+    float strokeOpacity;
+    float opacity;
+
+    Style() {
+      matrix = new float[]{1, 0, 0, 1, 0, 0};
+      fill = Color.BLACK;
+      stroke = NONE;
+      fillOpacity = 1;
+      strokeOpacity = 1;
+      opacity = 1;
+    }
+
+    Style(Style parent) {
+      matrix = parent.matrix.clone();
+      fill = parent.fill;
+      stroke = parent.stroke;
+      fillOpacity = parent.fillOpacity;
+      strokeOpacity = parent.strokeOpacity;
+      opacity = parent.opacity;
+    }
+
+    boolean hasTransform() {
+      return matrix[0] != 1 || matrix[1] != 0 || matrix[2] != 0 || matrix[3] != 1 || matrix[4] != 0
+          || matrix[5] != 0;
+    }
+
+  }
+
+  private static final class Reader {
+
+    private final XmlPullParser mParser;
+    private final List<Style> mStyles = new ArrayList<>();
+    private final List<String> mGlyphStrings = new ArrayList<>();
+    private int[] mFillColors = new int[16];
+    private int[] mStrokeColors = new int[16];
+    private final PathDataWriter mWriter = new PathDataWriter();
+    private boolean mHasStrokes;
+    private float mViewportWidth;
+    private float mViewportHeight;
+    private boolean mHasViewport;
+    private int mSkipDepth;
+
+    Reader(XmlPullParser parser) {
+      mParser = parser;
+    }
+
+    SvgDocument read() throws IOException, XmlPullParserException {
+      mStyles.add(new Style());
+      for (int event = mParser.getEventType(); event != XmlPullParser.END_DOCUMENT; event = mParser.next()) {
+        if (event == XmlPullParser.START_TAG) {
+          if (mSkipDepth > 0) {
+            mSkipDepth++;
+            continue;
+          }
+          String name = localName(mParser.getName());
+          if (isSkipped(name)) {
+            mSkipDepth = 1;
+            continue;
+          }
+          Style style = new Style(mStyles.get(mStyles.size() - 1));
+          if ("svg".equals(name) && !mHasViewport) {
+            readViewport(style);
+          }
+          readStyle(style);
+          mStyles.add(style);
+          if ("path".equals(name)) {
+            readPath(style);
+          }
+        } else if (event == XmlPullParser.END_TAG) {
+          if (mSkipDepth > 0) {
+            mSkipDepth--;
+          } else if (mStyles.size() > 1) {
+            mStyles.remove(mStyles.size() - 1);
+          }
+        }
+      }
+      if (!mHasViewport) {
+        throw new IOException("Invalid SVG: missing viewBox or size");
+      }
+      int count = mGlyphStrings.size();
+      return new SvgDocument(mViewportWidth, mViewportHeight, mGlyphStrings.toArray(new String[count]),
+          Arrays.copyOf(mFillColors, count), Arrays.copyOf(mStrokeColors, count), mHasStrokes);
+    }
+
+    private void readViewport(Style style) {
+      String viewBox = attribute("viewBox");
+      if (viewBox != null) {
+        float[] values = parseNumbers(viewBox);
+        if (values.length == 4 && values[2] > 0 && values[3] > 0) {
+          mViewportWidth = values[2];
+          mViewportHeight = values[3];
+          mHasViewport = true;
+          concat(style.matrix, 1, 0, 0, 1, -values[0], -values[1]);
+          return;
+        }
+      }
+      float width = parseLength(attribute("width"));
+      float height = parseLength(attribute("height"));
+      if (width > 0 && height > 0) {
+        mViewportWidth = width;
+        mViewportHeight = height;
+        mHasViewport = true;
+      }
+    }
+
+    private void readStyle(Style style) {
+      // presentation attributes are overridden by the style attribute
+      String transform = attribute("transform");
+      if (transform != null) {
+        parseTransform(transform, style.matrix);
+      }
+      for (int i = 0, count = mParser.getAttributeCount(); i < count; i++) {
+        applyProperty(style, localName(mParser.getAttributeName(i)), mParser.getAttributeValue(i));
+      }
+      String css = attribute("style");
+      if (css != null) {
+        for (String declaration : css.split(";")) {
+          int colon = declaration.indexOf(':');
+          if (colon > 0) {
+            applyProperty(style, declaration.substring(0, colon).trim(), declaration.substring(colon + 1).trim());
+          }
+        }
+      }
+    }
+
+    private void readPath(Style style) {
+      String d = attribute("d");
+      if (d == null || d.trim().isEmpty()) {
+        return;
+      }
+      if (style.hasTransform()) {
+        mWriter.reset();
+        PathParser.parsePathData(d, new TransformSink(mWriter, style.matrix));
+        d = mWriter.toString();
+      }
+      int index = mGlyphStrings.size();
+      if (index == mFillColors.length) {
+        mFillColors = Arrays.copyOf(mFillColors, index * 2);
+        mStrokeColors = Arrays.copyOf(mStrokeColors, index * 2);
+      }
+      mGlyphStrings.add(d);
+      mFillColors[index] = applyOpacity(style.fill, style.fillOpacity * style.opacity);
+      mStrokeColors[index] = applyOpacity(style.stroke, style.strokeOpacity * style.opacity);
+      if (style.stroke != NONE) {
+        mHasStrokes = true;
+      }
+    }
+
+    private String attribute(String name) {
+      return mParser.getAttributeValue(null, name);
+    }
+
+  }
+
+  private static String localName(String name) {
+    int colon = name.indexOf(':');
+    return colon >= 0 ? name.substring(colon + 1) : name;
+  }
+
+  private static boolean isSkipped(String name) {
+    return "defs".equals(name) || "clipPath".equals(name) || "mask".equals(name) || "pattern".equals(name)
+        || "symbol".equals(name) || "metadata".equals(name);
+  }
+
+  private static void applyProperty(Style style, String name, String value) {
+    if ("fill".equals(name)) {
+      style.fill = parseColor(value, style.fill);
+    } else if ("stroke".equals(name)) {
+      style.stroke = parseColor(value, style.stroke);
+    } else if ("fill-opacity".equals(name)) {
+      style.fillOpacity = parseOpacity(value, style.fillOpacity);
+    } else if ("stroke-opacity".equals(name)) {
+      style.strokeOpacity = parseOpacity(value, style.strokeOpacity);
+    } else if ("opacity".equals(name)) {
+      // opacity is not inherited, it multiplies with the opacity of the group
+      style.opacity *= parseOpacity(value, 1);
+    }
+  }
+
+  private static int applyOpacity(int color, float opacity) {
+    if (opacity >= 1) {
+      return color;
+    }
+    int alpha = Math.round(Color.alpha(color) * Math.max(0, opacity));
+    return (color & 0x00FFFFFF) | (alpha << 24);
+  }
+
+  private static float parseOpacity(String value, float fallback) {
+    try {
+      return Math.min(1, Math.max(0, Float.parseFloat(value.trim())));
+    } catch (NumberFormatException e) {
+      return fallback;
+    }
+  }
+
+  /**
+   * Parse an SVG color. Colors that are not supported, like gradients, keep the inherited color.
+   */
+  static int parseColor(String value, int inherited) {
+    value = value.trim();
+    if (value.equals("none")) {
+      return NONE;
+    }
+    if (value.length() == 4 && value.charAt(0) == '#') {
+      // #rgb is short for #rrggbb
+      StringBuilder sb = new StringBuilder(7).append('#');
+      for (int i = 1; i < 4; i++) {
+        sb.append(value.charAt(i)).append(value.charAt(i));
+      }
+      value = sb.toString();
+    } else if (value.startsWith("rgb(") && value.endsWith(")")) {
+      String[] channels = value.substring(4, value.length() - 1).split(",");
+      if (channels.length != 3) {
+        return inherited;
+      }
+      int[] rgb = new int[3];
+      try {
+        for (int i = 0; i < 3; i++) {
+          String channel = channels[i].trim();
+          float v = channel.endsWith("%") ? Float.parseFloat(channel.substring(0, channel.length() - 1)) * 2.55f
+              : Float.parseFloat(channel);
+          rgb[i] = Math.min(255, Math.max(0, Math.round(v)));
+        }
+      } catch (NumberFormatException e) {
+        return inherited;
+      }
+      return Color.rgb(rgb[0], rgb[1], rgb[2]);
+    }
+    try {
+      return Color.parseColor(value);
+    } catch (IllegalArgumentException e) {
+      return inherited;
+    }
+  }
+
+  /**
+   * Parse an SVG transform list and concatenate it to the matrix.
+   */
+  static void parseTransform(String value, float[] matrix) {
+    int start = 0;
+    int open;
+    while ((open = value.indexOf('(', start)) >= 0) {
+      int close = value.indexOf(')', open);
+      if (close < 0) {
+        break;
+      }
+      String name = value.substring(start, open).replace(',', ' ').trim();
+      float[] v = parseNumbers(value.substring(open + 1, close));
+      if ("matrix".equals(name) && v.length == 6) {
+        concat(matrix, v[0], v[1], v[2], v[3], v[4], v[5]);
+      } else if ("translate".equals(name) && v.length >= 1) {
+        concat(matrix, 1, 0, 0, 1, v[0], v.length > 1 ? v[1] : 0);
+      } else if ("scale".equals(name) && v.length >= 1) {
+        concat(matrix, v[0], 0, 0, v.length > 1 ? v[1] : v[0], 0, 0);
+      } else if ("rotate".equals(name) && v.length >= 1) {
+        double angle = Math.toRadians(v[0]);
+        float cos = (float) Math.cos(angle);
+        float sin = (float) Math.sin(angle);
+        float cx = v.length == 3 ? v[1] : 0;
+        float cy = v.length == 3 ? v[2] : 0;
+        concat(matrix, 1, 0, 0, 1, cx, cy);
+        concat(matrix, cos, sin, -sin, cos, 0, 0);
+        concat(matrix, 1, 0, 0, 1, -cx, -cy);
+      } else if ("skewX".equals(name) && v.length == 1) {
+        concat(matrix, 1, 0, (float) Math.tan(Math.toRadians(v[0])), 1, 0, 0);
+      } else if ("skewY".equals(name) && v.length == 1) {
+        concat(matrix, 1, (float) Math.tan(Math.toRadians(v[0])), 0, 1, 0, 0);
+      }
+      start = close + 1;
+    }
+  }
+
+  /**
+   * Multiply the matrix by the given matrix, so the given matrix is applied to a point first.
+   */
+  private static void concat(float[] m, float a, float b, float c, float d, float e, float f) {
+    float ma = m[0], mb = m[1], mc = m[2], md = m[3];
+    m[0] = ma * a + mc * b;
+    m[1] = mb * a + md * b;
+    m[2] = ma * c + mc * d;
+    m[3] = mb * c + md * d;
+    m[4] += ma * e + mc * f;
+    m[5] += mb * e + md * f;
+  }
+
+  private static float[] parseNumbers(String value) {
+    String[] parts = value.trim().split("[\\s,]+");
+    if (parts.length == 1 && parts[0].isEmpty()) {
+      return new float[0];
+    }
+    float[] numbers = new float[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      numbers[i] = Float.parseFloat(parts[i]);
+    }
+    return numbers;
+  }
+
+  private static float parseLength(String value) {
+    if (value == null) {
+      return 0;
+    }
+    value = value.trim();
+    if (value.endsWith("%")) {
+      return 0;
+    }
+    int end = 0;
+    while (end < value.length() && "0123456789.-+eE".indexOf(value.charAt(end)) >= 0) {
+      end++;
+    }
+    try {
+      return Float.parseFloat(value.substring(0, end));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+}
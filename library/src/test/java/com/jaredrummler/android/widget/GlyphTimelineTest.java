@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.widget;
+
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares {@link GlyphTimeline} with the per-glyph phase formula that the renderer evaluated for every glyph on
+ * every frame before the timeline replaced it.
+ */
+public class GlyphTimelineTest {
+
+  private static final int SCHEDULES = 200000;
+
+  @Test public void randomSchedulesMatchThePhaseFormula() {
+    Random random = new Random(20161017);
+    for (int s = 0; s < SCHEDULES; s++) {
+      int glyphCount = 1 + random.nextInt(random.nextInt(8) == 0 ? 500 : 20);
+      int traceTime = random.nextInt(5000);
+      int traceTimePerGlyph = 1 + random.nextInt(random.nextBoolean() ? 1000 : 6000);
+      GlyphTimeline timeline = new GlyphTimeline(glyphCount, traceTime, traceTimePerGlyph);
+      long end = Math.max(traceTime, traceTimePerGlyph) + 100;
+      long t = random.nextInt(4) == 0 ? random.nextInt(3) : (long) (random.nextFloat() * end);
+      timeline.seek(t);
+      for (int i = 0; i < glyphCount; i++) {
+        float expected = phase(t, i, glyphCount, traceTime, traceTimePerGlyph);
+        String message = "glyph " + i + " of " + glyphCount + ", trace time " + traceTime + ", per glyph "
+            + traceTimePerGlyph + ", t " + t;
+        boolean started = i >= timeline.getStartedFrom() && i < timeline.getStartedTo();
+        if (!started) {
+          // Glyphs that weren't visited drew nothing.
+          assertEquals(message, 0, expected, 0);
+        } else if (timeline.isFinished(i)) {
+          // Finished glyphs are drawn as residue, like glyphs with a phase of 1.
+          assertEquals(message, 1, expected, 0);
+        } else {
+          assertTrue(message, expected > 0);
+          assertEquals(message, expected, timeline.getPhase(i, t), 0);
+        }
+      }
+    }
+  }
+
+  /**
+   * The phase formula that was evaluated for every glyph on every frame.
+   */
+  private static float phase(long t, int i, int glyphCount, int traceTime, int traceTimePerGlyph) {
+    return constrain(0, 1, (t - (traceTime - traceTimePerGlyph) * i * 1f / glyphCount) * 1f / traceTimePerGlyph);
+  }
+
+  private static float constrain(float min, float max, float v) {
+    return Math.max(min, Math.min(max, v));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.path;
+
+/**
+ * A {@link PathSink} that writes the path as SVG path data with absolute commands, e.g. to store a path after it was
+ * transformed. Whole numbers are written without a fraction.
+ */
+public final class PathDataWriter implements PathSink {
+
+  private final StringBuilder mData;
+
+  public PathDataWriter() {
+    mData = new StringBuilder();
+  }
+
+  /**
+   * @param capacity
+   *     The expected length of the path data in characters.
+   */
+  public PathDataWriter(int capacity) {
+    mData = new StringBuilder(capacity);
+  }
+
+  @Override public void moveTo(float x, float y) {
+    command('M').point(x, y);
+  }
+
+  @Override public void lineTo(float x, float y) {
+    command('L').point(x, y);
+  }
+
+  @Override public void quadTo(float x1, float y1, float x2, float y2) {
+    command('Q').point(x1, y1).separator().point(x2, y2);
+  }
+
+  @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+    command('C').point(x1, y1).separator().point(x2, y2).separator().point(x3, y3);
+  }
+
+  @Override public void close() {
+    command('Z');
+  }
+
+  /**
+   * Remove everything that was written.
+   */
+  public void reset() {
+    mData.setLength(0);
+  }
+
+  /**
+   * @return the path data written so far.
+   */
+  @Override public String toString() {
+    return mData.toString();
+  }
+
+  private PathDataWriter command(char command) {
+    mData.append(command);
+    return this;
+  }
+
+  private PathDataWriter separator() {
+    mData.append(' ');
+    return this;
+  }
+
+  private PathDataWriter point(float x, float y) {
+    number(x);
+    mData.append(',');
+    number(y);
+    return this;
+  }
+
+  private void number(float value) {
+    if (value == (int) value) {
+      mData.append((int) value);
+    } else {
+      mData.append(value);
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.path;
+
+/**
+ * A {@link PathSink} that replaces quadratic and cubic Bézier curves with line segments and passes the result to
+ * another sink. Curves are subdivided until no control point is further than the tolerance from the chord. A curve
+ * lies within the convex hull of its control points, so the curve never deviates from the polyline by more than the
+ * tolerance.
+ */
+public final class PathFlattener implements PathSink {
+
+  /** The maximum number of times a curve is split in half. */
+  private static final int MAX_DEPTH = 16;
+
+  private PathSink mTarget;
+  private final float mTolerance;
+  private float mLastX;
+  private float mLastY;
+
+  /**
+   * @param target
+   *     The sink that receives the line segments.
+   * @param tolerance
+   *     The maximum distance between a curve and its line segments, in path units.
+   */
+  public PathFlattener(PathSink target, float tolerance) {
+    if (!(tolerance > 0)) {
+      throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+    }
+    mTarget = target;
+    mTolerance = tolerance;
+  }
+
+  /**
+   * Set the sink that receives the line segments of the following commands.
+   *
+   * @param target
+   *     The sink
+   */
+  public void setTarget(PathSink target) {
+    mTarget = target;
+  }
+
+  @Override public void moveTo(float x, float y) {
+    mTarget.moveTo(x, y);
+    mLastX = x;
+    mLastY = y;
+  }
+
+  @Override public void lineTo(float x, float y) {
+    mTarget.lineTo(x, y);
+    mLastX = x;
+    mLastY = y;
+  }
+
+  @Override public void quadTo(float x1, float y1, float x2, float y2) {
+    // Elevate to a cubic, which has the same shape.
+    float cx1 = mLastX + 2f / 3f * (x1 - mLastX);
+    float cy1 = mLastY + 2f / 3f * (y1 - mLastY);
+    float cx2 = x2 + 2f / 3f * (x1 - x2);
+    float cy2 = y2 + 2f / 3f * (y1 - y2);
+    cubicTo(cx1, cy1, cx2, cy2, x2, y2);
+  }
+
+  @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+    flattenCubic(mLastX, mLastY, x1, y1, x2, y2, x3, y3, 0);
+    mLastX = x3;
+    mLastY = y3;
+  }
+
+  @Override public void close() {
+    mTarget.close();
+  }
+
+  private void flattenCubic(float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3,
+                            int depth) {
+    if (depth >= MAX_DEPTH || isFlat(x0, y0, x1, y1, x2, y2, x3, y3)) {
+      mTarget.lineTo(x3, y3);
+      return;
+    }
+    // Split in half with de Casteljau's algorithm.
+    float x01 = (x0 + x1) / 2;
+    float y01 = (y0 + y1) / 2;
+    float x12 = (x1 + x2) / 2;
+    float y12 = (y1 + y2) / 2;
+    float x23 = (x2 + x3) / 2;
+    float y23 = (y2 + y3) / 2;
+    float x012 = (x01 + x12) / 2;
+    float y012 = (y01 + y12) / 2;
+    float x123 = (x12 + x23) / 2;
+    float y123 = (y12 + y23) / 2;
+    float x0123 = (x012 + x123) / 2;
+    float y0123 = (y012 + y123) / 2;
+    flattenCubic(x0, y0, x01, y01, x012, y012, x0123, y0123, depth + 1);
+    flattenCubic(x0123, y0123, x123, y123, x23, y23, x3, y3, depth + 1);
+  }
+
+  private boolean isFlat(float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3) {
+    // Control points are measured to the chord as a segment, not as an infinite line. A control point beyond an end
+    // of the chord means the curve overshoots it.
+    float toleranceSquared = mTolerance * mTolerance;
+    return segmentDistanceSquared(x1, y1, x0, y0, x3, y3) <= toleranceSquared
+        && segmentDistanceSquared(x2, y2, x0, y0, x3, y3) <= toleranceSquared;
+  }
+
+  /**
+   * @return the squared distance from the point {@code (px, py)} to the segment from {@code (x0, y0)} to
+   * {@code (x1, y1)}.
+   */
+  private static float segmentDistanceSquared(float px, float py, float x0, float y0, float x1, float y1) {
+    float dx = x1 - x0;
+    float dy = y1 - y0;
+    float lengthSquared = dx * dx + dy * dy;
+    float t = 0;
+    if (lengthSquared > 0) {
+      t = Math.max(0, Math.min(1, ((px - x0) * dx + (py - y0) * dy) / lengthSquared));
+    }
+    float ex = px - (x0 + t * dx);
+    float ey = py - (y0 + t * dy);
+    return ex * ex + ey * ey;
+  }
+
+}
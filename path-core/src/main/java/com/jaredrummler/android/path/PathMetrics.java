@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.path;
+
+/**
+ * A {@link PathSink} that measures the length of every contour and the bounds of a path without the Android
+ * framework. Curves are {@link PathFlattener flattened} to a tolerance before they are measured.
+ *
+ * <p>Contours are counted the same way {@code android.graphics.PathMeasure} counts them: a contour starts with a
+ * move and contours with a length of zero are skipped. If {@code forceClosed} is set, the length of an open contour
+ * includes the segment back to its start.</p>
+ *
+ * <p>The bounds are those of the flattened curves and include every point moved to, like
+ * {@code android.graphics.Path#computeBounds(RectF, boolean)} does for a path without curves.</p>
+ */
+public final class PathMetrics implements PathSink {
+
+  /** The default tolerance, in path units. */
+  public static final float DEFAULT_TOLERANCE = 0.25f;
+
+  private final PathFlattener mFlattener;
+  private final boolean mForceClosed;
+
+  private float[] mContourLengths = new float[4];
+  private float[] mClosedContourLengths = new float[4];
+  private boolean[] mContourClosed = new boolean[4];
+  private int mContourCount;
+
+  private float mStartX;
+  private float mStartY;
+  private float mLastX;
+  private float mLastY;
+  private float mLength;
+  private boolean mInContour;
+
+  private float mLeft = Float.POSITIVE_INFINITY;
+  private float mTop = Float.POSITIVE_INFINITY;
+  private float mRight = Float.NEGATIVE_INFINITY;
+  private float mBottom = Float.NEGATIVE_INFINITY;
+
+  /**
+   * @param tolerance
+   *     The maximum distance between a curve and the line segments used to measure it, in path units.
+   * @param forceClosed
+   *     {@code true} to measure open contours as if they were closed.
+   */
+  public PathMetrics(float tolerance, boolean forceClosed) {
+    mFlattener = new PathFlattener(new Lines(), tolerance);
+    mForceClosed = forceClosed;
+  }
+
+  /**
+   * Measure path data.
+   *
+   * @param pathData
+   *     The string representing a path, the same as "d" string in svg file.
+   * @param tolerance
+   *     The maximum distance between a curve and the line segments used to measure it, in path units.
+   * @param forceClosed
+   *     {@code true} to measure open contours as if they were closed.
+   * @return the metrics of the path.
+   */
+  public static PathMetrics measure(CharSequence pathData, float tolerance, boolean forceClosed) {
+    PathMetrics metrics = new PathMetrics(tolerance, forceClosed);
+    PathNormalizer.parse(pathData, metrics);
+    metrics.finish();
+    return metrics;
+  }
+
+  @Override public void moveTo(float x, float y) {
+    mFlattener.moveTo(x, y);
+  }
+
+  @Override public void lineTo(float x, float y) {
+    mFlattener.lineTo(x, y);
+  }
+
+  @Override public void quadTo(float x1, float y1, float x2, float y2) {
+    mFlattener.quadTo(x1, y1, x2, y2);
+  }
+
+  @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+    mFlattener.cubicTo(x1, y1, x2, y2, x3, y3);
+  }
+
+  @Override public void close() {
+    mFlattener.close();
+  }
+
+  /**
+   * Complete the last contour. Call this after the last segment was added and before reading the metrics.
+   */
+  public void finish() {
+    endContour(false);
+  }
+
+  /**
+   * @return the number of contours with a length greater than zero.
+   */
+  public int getContourCount() {
+    return mContourCount;
+  }
+
+  /**
+   * @param index
+   *     the index of the contour
+   * @return the length of the contour
+   */
+  public float getContourLength(int index) {
+    checkIndex(index);
+    return mContourLengths[index];
+  }
+
+  /**
+   * @param index
+   *     the index of the contour
+   * @return the length of the contour including the segment back to its start, as if {@code forceClosed} was set.
+   */
+  public float getClosedContourLength(int index) {
+    checkIndex(index);
+    return mClosedContourLengths[index];
+  }
+
+  /**
+   * @param index
+   *     the index of the contour
+   * @return {@code true} if the contour was closed or {@code forceClosed} is set.
+   */
+  public boolean isContourClosed(int index) {
+    checkIndex(index);
+    return mContourClosed[index];
+  }
+
+  /**
+   * @return the length of each contour.
+   */
+  public float[] getContourLengths() {
+    float[] lengths = new float[mContourCount];
+    System.arraycopy(mContourLengths, 0, lengths, 0, mContourCount);
+    return lengths;
+  }
+
+  /**
+   * @return the length of the longest contour, or 0 if there are no contours.
+   */
+  public float getMaxContourLength() {
+    float max = 0;
+    for (int i = 0; i < mContourCount; i++) {
+      max = Math.max(max, mContourLengths[i]);
+    }
+    return max;
+  }
+
+  /**
+   * @return the sum of the lengths of all contours.
+   */
+  public float getTotalLength() {
+    float total = 0;
+    for (int i = 0; i < mContourCount; i++) {
+      total += mContourLengths[i];
+    }
+    return total;
+  }
+
+  /**
+   * Get the bounds of the flattened path.
+   *
+   * @param bounds
+   *     Receives left, top, right and bottom. All values are 0 if the path is empty.
+   */
+  public void getBounds(float[] bounds) {
+    boolean empty = mLeft > mRight;
+    bounds[0] = empty ? 0 : mLeft;
+    bounds[1] = empty ? 0 : mTop;
+    bounds[2] = empty ? 0 : mRight;
+    bounds[3] = empty ? 0 : mBottom;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= mContourCount) {
+      throw new IndexOutOfBoundsException("Contour " + index + " of " + mContourCount);
+    }
+  }
+
+  private void addPoint(float x, float y) {
+    mLeft = Math.min(mLeft, x);
+    mTop = Math.min(mTop, y);
+    mRight = Math.max(mRight, x);
+    mBottom = Math.max(mBottom, y);
+  }
+
+  private void startContour(float x, float y) {
+    mStartX = mLastX = x;
+    mStartY = mLastY = y;
+    mLength = 0;
+    mInContour = true;
+  }
+
+  private void endContour(boolean closed) {
+    if (!mInContour) {
+      return;
+    }
+    float closedLength = closed ? mLength : mLength + (float) Math.hypot(mStartX - mLastX, mStartY - mLastY);
+    if (mForceClosed) {
+      mLength = closedLength;
+    }
+    if (mLength > 0) {
+      if (mContourCount == mContourLengths.length) {
+        float[] lengths = new float[mContourCount * 2];
+        System.arraycopy(mContourLengths, 0, lengths, 0, mContourCount);
+        mContourLengths = lengths;
+        float[] closedLengths = new float[mContourCount * 2];
+        System.arraycopy(mClosedContourLengths, 0, closedLengths, 0, mContourCount);
+        mClosedContourLengths = closedLengths;
+        boolean[] contourClosed = new boolean[mContourCount * 2];
+        System.arraycopy(mContourClosed, 0, contourClosed, 0, mContourCount);
+        mContourClosed = contourClosed;
+      }
+      mContourLengths[mContourCount] = mLength;
+      mClosedContourLengths[mContourCount] = closedLength;
+      mContourClosed[mContourCount] = closed || mForceClosed;
+      mContourCount++;
+    }
+    mInContour = false;
+    mLength = 0;
+  }
+
+  /** Receives the flattened path. */
+  private final class Lines implements PathSink {
+
+    @Override public void moveTo(float x, float y) {
+      endContour(false);
+      startContour(x, y);
+      addPoint(x, y);
+    }
+
+    @Override public void lineTo(float x, float y) {
+      if (!mInContour) {
+        // A segment after a close starts a new contour at the start of the previous one.
+        startContour(mStartX, mStartY);
+        addPoint(mStartX, mStartY);
+      }
+      mLength += (float) Math.hypot(x - mLastX, y - mLastY);
+      addPoint(x, y);
+      mLastX = x;
+      mLastY = y;
+    }
+
+    @Override public void quadTo(float x1, float y1, float x2, float y2) {
+      throw new IllegalStateException("Curves are flattened");
+    }
+
+    @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+      throw new IllegalStateException("Curves are flattened");
+    }
+
+    @Override public void close() {
+      if (mInContour) {
+        mLength += (float) Math.hypot(mStartX - mLastX, mStartY - mLastY);
+        mLastX = mStartX;
+        mLastY = mStartY;
+      }
+      endContour(true);
+    }
+  }
+
+}
@@ -0,0 +1,577 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaredrummler.android.path;
+
+/**
+ * Normalizes the commands of SVG path data and sends the resulting segments to a {@link PathSink}. All coordinates
+ * are made absolute, horizontal, vertical and smooth curves are expanded and arcs are converted to cubic Bézier
+ * curves. This has no dependency on the Android framework.
+ *
+ * <p>A normalizer keeps the state of the pen between commands, so it should be {@link #reset() reset} before it is
+ * used for another path.</p>
+ */
+public final class PathNormalizer implements PathTokenizer.CommandHandler {
+
+  /**
+   * Receives the diagnostics of a normalizer, e.g. to log them on Android.
+   */
+  public interface WarningListener {
+
+    /**
+     * Called when the path data contains a command that can't be drawn as written, e.g. an arc whose end points
+     * are coincident. The normalizer skips or adjusts the command and continues.
+     *
+     * @param message
+     *     a description of the problem
+     */
+    void onWarning(String message);
+  }
+
+  private final float[] mCurrent = new float[8];
+  private char mPreviousCommand = 'm';
+  private PathSink mSink;
+  private WarningListener mWarningListener;
+
+  public PathNormalizer(PathSink sink) {
+    mSink = sink;
+  }
+
+  /**
+   * Parse the path data and send each segment to the sink while the data is scanned.
+   *
+   * @param pathData
+   *     The string representing a path, the same as "d" string in svg file.
+   * @param sink
+   *     The sink that receives the segments of the path.
+   */
+  public static void parse(CharSequence pathData, PathSink sink) {
+    PathTokenizer.tokenize(pathData, new PathNormalizer(sink));
+  }
+
+  /**
+   * Set the sink that receives the segments of the following commands.
+   *
+   * @param sink
+   *     The sink
+   */
+  public void setSink(PathSink sink) {
+    mSink = sink;
+  }
+
+  /**
+   * Set the listener that receives the diagnostics of the following commands.
+   *
+   * @param listener
+   *     The listener, or {@code null} to ignore the diagnostics.
+   */
+  public void setWarningListener(WarningListener listener) {
+    mWarningListener = listener;
+  }
+
+  /**
+   * Reset the state of the pen so the normalizer can be used for a new path.
+   */
+  public void reset() {
+    for (int i = 0; i < mCurrent.length; i++) {
+      mCurrent[i] = 0;
+    }
+    mPreviousCommand = 'm';
+  }
+
+  @Override public void onCommand(char cmd, float[] val, int count) {
+    addCommand(cmd, val, 0, count);
+  }
+
+  /**
+   * Normalize a command and send its segments to the sink.
+   *
+   * @param cmd
+   *     the command
+   * @param val
+   *     the floats of all commands
+   * @param offset
+   *     the index of the first float of this command in {@code val}
+   * @param count
+   *     the number of floats of this command
+   */
+  public void addCommand(char cmd, float[] val, int offset, int count) {
+    addCommand(mSink, mWarningListener, mCurrent, mPreviousCommand, cmd, val, offset, count);
+    mPreviousCommand = cmd;
+  }
+
+  /**
+   * Normalize a command and send its segments to the sink.
+   *
+   * @param current
+   *     the state of the pen: the current point, the last control point, the start of the current sub-path and
+   *     the last point of the path. The last point differs from the current point after an arc, because the arc
+   *     ends on its last Bézier segment. Relative commands are resolved against it the same way
+   *     {@code android.graphics.Path#rLineTo(float, float)} and friends do.
+   * @param val
+   *     the floats of all commands
+   * @param offset
+   *     the index of the first float of this command in {@code val}
+   * @param count
+   *     the number of floats of this command
+   */
+  private static void addCommand(PathSink sink, WarningListener listener, float[] current,
+                                 char previousCmd, char cmd, float[] val, int offset, int count) {
+
+    int incr = 2;
+    boolean hasParams = true;
+    float currentX = current[0];
+    float currentY = current[1];
+    float ctrlPointX = current[2];
+    float ctrlPointY = current[3];
+    float currentSegmentStartX = current[4];
+    float currentSegmentStartY = current[5];
+    float lastX = current[6];
+    float lastY = current[7];
+    float reflectiveCtrlPointX;
+    float reflectiveCtrlPointY;
+
+    switch (cmd) {
+      case 'z':
+      case 'Z':
+        sink.close();
+        // Path is closed here, but we need to move the pen to the
+        // closed position. So we cache the segment's starting position,
+        // and restore it here.
+        currentX = currentSegmentStartX;
+        currentY = currentSegmentStartY;
+        ctrlPointX = currentSegmentStartX;
+        ctrlPointY = currentSegmentStartY;
+        sink.moveTo(currentX, currentY);
+        lastX = currentX;
+        lastY = currentY;
+        hasParams = false;
+        break;
+      case 'm':
+      case 'M':
+      case 'l':
+      case 'L':
+      case 't':
+      case 'T':
+        incr = 2;
+        break;
+      case 'h':
+      case 'H':
+      case 'v':
+      case 'V':
+        incr = 1;
+        break;
+      case 'c':
+      case 'C':
+        incr = 6;
+        break;
+      case 's':
+      case 'S':
+      case 'q':
+      case 'Q':
+        incr = 4;
+        break;
+      case 'a':
+      case 'A':
+        incr = 7;
+        break;
+      default:
+        hasParams = false;
+        break;
+    }
+
+    int end = offset + count;
+    for (int k = offset; k < end; k += incr) {
+      if (hasParams && k + incr > end) {
+        throw new ArrayIndexOutOfBoundsException("Command " + cmd + " expects " + incr + " values, found " + count);
+      }
+      switch (cmd) {
+        case 'm': // moveto - Start a new sub-path (relative)
+          currentX += val[k + 0];
+          currentY += val[k + 1];
+          if (k > offset) {
+            // According to the spec, if a moveto is followed by multiple
+            // pairs of coordinates, the subsequent pairs are treated as
+            // implicit lineto commands.
+            sink.lineTo(lastX += val[k + 0], lastY += val[k + 1]);
+          } else {
+            sink.moveTo(lastX += val[k + 0], lastY += val[k + 1]);
+            currentSegmentStartX = currentX;
+            currentSegmentStartY = currentY;
+          }
+          break;
+        case 'M': // moveto - Start a new sub-path
+          currentX = val[k + 0];
+          currentY = val[k + 1];
+          if (k > offset) {
+            // According to the spec, if a moveto is followed by multiple
+            // pairs of coordinates, the subsequent pairs are treated as
+            // implicit lineto commands.
+            sink.lineTo(lastX = val[k + 0], lastY = val[k + 1]);
+          } else {
+            sink.moveTo(lastX = val[k + 0], lastY = val[k + 1]);
+            currentSegmentStartX = currentX;
+            currentSegmentStartY = currentY;
+          }
+          break;
+        case 'l': // lineto - Draw a line from the current point (relative)
+          sink.lineTo(lastX += val[k + 0], lastY += val[k + 1]);
+          currentX += val[k + 0];
+          currentY += val[k + 1];
+          break;
+        case 'L': // lineto - Draw a line from the current point
+          sink.lineTo(lastX = val[k + 0], lastY = val[k + 1]);
+          currentX = val[k + 0];
+          currentY = val[k + 1];
+          break;
+        case 'h': // horizontal lineto - Draws a horizontal line (relative)
+          sink.lineTo(lastX += val[k + 0], lastY);
+          currentX += val[k + 0];
+          break;
+        case 'H': // horizontal lineto - Draws a horizontal line
+          sink.lineTo(lastX = val[k + 0], lastY = currentY);
+          currentX = val[k + 0];
+          break;
+        case 'v': // vertical lineto - Draws a vertical line from the current point (r)
+          sink.lineTo(lastX, lastY += val[k + 0]);
+          currentY += val[k + 0];
+          break;
+        case 'V': // vertical lineto - Draws a vertical line from the current point
+          sink.lineTo(lastX = currentX, lastY = val[k + 0]);
+          currentY = val[k + 0];
+          break;
+        case 'c': // curveto - Draws a cubic Bézier curve (relative)
+          sink.cubicTo(lastX + val[k + 0], lastY + val[k + 1], lastX + val[k + 2], lastY + val[k + 3],
+              lastX += val[k + 4], lastY += val[k + 5]);
+
+          ctrlPointX = currentX + val[k + 2];
+          ctrlPointY = currentY + val[k + 3];
+          currentX += val[k + 4];
+          currentY += val[k + 5];
+
+          break;
+        case 'C': // curveto - Draws a cubic Bézier curve
+          sink.cubicTo(val[k + 0], val[k + 1], val[k + 2], val[k + 3],
+              lastX = val[k + 4], lastY = val[k + 5]);
+          currentX = val[k + 4];
+          currentY = val[k + 5];
+          ctrlPointX = val[k + 2];
+          ctrlPointY = val[k + 3];
+          break;
+        case 's': // smooth curveto - Draws a cubic Bézier curve (reflective cp)
+          reflectiveCtrlPointX = 0;
+          reflectiveCtrlPointY = 0;
+          if (previousCmd == 'c' || previousCmd == 's'
+              || previousCmd == 'C' || previousCmd == 'S') {
+            reflectiveCtrlPointX = currentX - ctrlPointX;
+            reflectiveCtrlPointY = currentY - ctrlPointY;
+          }
+          sink.cubicTo(lastX + reflectiveCtrlPointX, lastY + reflectiveCtrlPointY,
+              lastX + val[k + 0], lastY + val[k + 1],
+              lastX += val[k + 2], lastY += val[k + 3]);
+
+          ctrlPointX = currentX + val[k + 0];
+          ctrlPointY = currentY + val[k + 1];
+          currentX += val[k + 2];
+          currentY += val[k + 3];
+          break;
+        case 'S': // shorthand/smooth curveto Draws a cubic Bézier curve(reflective cp)
+          reflectiveCtrlPointX = currentX;
+          reflectiveCtrlPointY = currentY;
+          if (previousCmd == 'c' || previousCmd == 's'
+              || previousCmd == 'C' || previousCmd == 'S') {
+            reflectiveCtrlPointX = 2 * currentX - ctrlPointX;
+            reflectiveCtrlPointY = 2 * currentY - ctrlPointY;
+          }
+          sink.cubicTo(reflectiveCtrlPointX, reflectiveCtrlPointY,
+              val[k + 0], val[k + 1], lastX = val[k + 2], lastY = val[k + 3]);
+          ctrlPointX = val[k + 0];
+          ctrlPointY = val[k + 1];
+          currentX = val[k + 2];
+          currentY = val[k + 3];
+          break;
+        case 'q': // Draws a quadratic Bézier (relative)
+          sink.quadTo(lastX + val[k + 0], lastY + val[k + 1], lastX += val[k + 2], lastY += val[k + 3]);
+          ctrlPointX = currentX + val[k + 0];
+          ctrlPointY = currentY + val[k + 1];
+          currentX += val[k + 2];
+          currentY += val[k + 3];
+          break;
+        case 'Q': // Draws a quadratic Bézier
+          sink.quadTo(val[k + 0], val[k + 1], lastX = val[k + 2], lastY = val[k + 3]);
+          ctrlPointX = val[k + 0];
+          ctrlPointY = val[k + 1];
+          currentX = val[k + 2];
+          currentY = val[k + 3];
+          break;
+        case 't': // Draws a quadratic Bézier curve(reflective control point)(relative)
+          reflectiveCtrlPointX = 0;
+          reflectiveCtrlPointY = 0;
+          if (previousCmd == 'q' || previousCmd == 't'
+              || previousCmd == 'Q' || previousCmd == 'T') {
+            reflectiveCtrlPointX = currentX - ctrlPointX;
+            reflectiveCtrlPointY = currentY - ctrlPointY;
+          }
+          sink.quadTo(lastX + reflectiveCtrlPointX, lastY + reflectiveCtrlPointY,
+              lastX += val[k + 0], lastY += val[k + 1]);
+          ctrlPointX = currentX + reflectiveCtrlPointX;
+          ctrlPointY = currentY + reflectiveCtrlPointY;
+          currentX += val[k + 0];
+          currentY += val[k + 1];
+          break;
+        case 'T': // Draws a quadratic Bézier curve (reflective control point)
+          reflectiveCtrlPointX = currentX;
+          reflectiveCtrlPointY = currentY;
+          if (previousCmd == 'q' || previousCmd == 't'
+              || previousCmd == 'Q' || previousCmd == 'T') {
+            reflectiveCtrlPointX = 2 * currentX - ctrlPointX;
+            reflectiveCtrlPointY = 2 * currentY - ctrlPointY;
+          }
+          sink.quadTo(reflectiveCtrlPointX, reflectiveCtrlPointY,
+              lastX = val[k + 0], lastY = val[k + 1]);
+          ctrlPointX = reflectiveCtrlPointX;
+          ctrlPointY = reflectiveCtrlPointY;
+          currentX = val[k + 0];
+          currentY = val[k + 1];
+          break;
+        case 'a': // Draws an elliptical arc
+          // (rx ry x-axis-rotation large-arc-flag sweep-flag x y)
+          current[6] = lastX;
+          current[7] = lastY;
+          drawArc(sink,
+              listener,
+              current,
+              currentX,
+              currentY,
+              val[k + 5] + currentX,
+              val[k + 6] + currentY,
+              val[k + 0],
+              val[k + 1],
+              val[k + 2],
+              val[k + 3] != 0,
+              val[k + 4] != 0);
+          lastX = current[6];
+          lastY = current[7];
+          currentX += val[k + 5];
+          currentY += val[k + 6];
+          ctrlPointX = currentX;
+          ctrlPointY = currentY;
+          break;
+        case 'A': // Draws an elliptical arc
+          current[6] = lastX;
+          current[7] = lastY;
+          drawArc(sink,
+              listener,
+              current,
+              currentX,
+              currentY,
+              val[k + 5],
+              val[k + 6],
+              val[k + 0],
+              val[k + 1],
+              val[k + 2],
+              val[k + 3] != 0,
+              val[k + 4] != 0);
+          lastX = current[6];
+          lastY = current[7];
+          currentX = val[k + 5];
+          currentY = val[k + 6];
+          ctrlPointX = currentX;
+          ctrlPointY = currentY;
+          break;
+      }
+      previousCmd = cmd;
+    }
+    current[0] = currentX;
+    current[1] = currentY;
+    current[2] = ctrlPointX;
+    current[3] = ctrlPointY;
+    current[4] = currentSegmentStartX;
+    current[5] = currentSegmentStartY;
+    current[6] = lastX;
+    current[7] = lastY;
+  }
+
+  private static void drawArc(PathSink p,
+                              WarningListener listener,
+                              float[] current,
+                              float x0,
+                              float y0,
+                              float x1,
+                              float y1,
+                              float a,
+                              float b,
+                              float theta,
+                              boolean isMoreThanHalf,
+                              boolean isPositiveArc) {
+
+          /* Convert rotation angle from degrees to radians */
+    double thetaD = Math.toRadians(theta);
+          /* Pre-compute rotation matrix entries */
+    double cosTheta = Math.cos(thetaD);
+    double sinTheta = Math.sin(thetaD);
+          /* Transform (x0, y0) and (x1, y1) into unit space */
+          /* using (inverse) rotation, followed by (inverse) scale */
+    double x0p = (x0 * cosTheta + y0 * sinTheta) / a;
+    double y0p = (-x0 * sinTheta + y0 * cosTheta) / b;
+    double x1p = (x1 * cosTheta + y1 * sinTheta) / a;
+    double y1p = (-x1 * sinTheta + y1 * cosTheta) / b;
+
+          /* Compute differences and averages */
+    double dx = x0p - x1p;
+    double dy = y0p - y1p;
+    double xm = (x0p + x1p) / 2;
+    double ym = (y0p + y1p) / 2;
+          /* Solve for intersecting unit circles */
+    double dsq = dx * dx + dy * dy;
+    if (dsq == 0.0) {
+      if (listener != null) {
+        listener.onWarning("Points are coincident");
+      }
+      return; /* Points are coincident */
+    }
+    double disc = 1.0 / dsq - 1.0 / 4.0;
+    if (disc < 0.0) {
+      if (listener != null) {
+        listener.onWarning("Points are too far apart " + dsq);
+      }
+      float adjust = (float) (Math.sqrt(dsq) / 1.99999);
+      drawArc(p, listener, current, x0, y0, x1, y1, a * adjust,
+          b * adjust, theta, isMoreThanHalf, isPositiveArc);
+      return; /* Points are too far apart */
+    }
+    double s = Math.sqrt(disc);
+    double sdx = s * dx;
+    double sdy = s * dy;
+    double cx;
+    double cy;
+    if (isMoreThanHalf == isPositiveArc) {
+      cx = xm - sdy;
+      cy = ym + sdx;
+    } else {
+      cx = xm + sdy;
+      cy = ym - sdx;
+    }
+
+    double eta0 = Math.atan2((y0p - cy), (x0p - cx));
+
+    double eta1 = Math.atan2((y1p - cy), (x1p - cx));
+
+    double sweep = (eta1 - eta0);
+    if (isPositiveArc != (sweep >= 0)) {
+      if (sweep > 0) {
+        sweep -= 2 * Math.PI;
+      } else {
+        sweep += 2 * Math.PI;
+      }
+    }
+
+    cx *= a;
+    cy *= b;
+    double tcx = cx;
+    cx = cx * cosTheta - cy * sinTheta;
+    cy = tcx * sinTheta + cy * cosTheta;
+
+    arcToBezier(p, current, cx, cy, a, b, x0, y0, thetaD, eta0, sweep);
+  }
+
+  /**
+   * Converts an arc to cubic Bezier segments and records them in p.
+   *
+   * @param p
+   *     The target for the cubic Bezier segments
+   * @param current
+   *     The state of the pen. The last point is updated with the end of each segment.
+   * @param cx
+   *     The x coordinate center of the ellipse
+   * @param cy
+   *     The y coordinate center of the ellipse
+   * @param a
+   *     The radius of the ellipse in the horizontal direction
+   * @param b
+   *     The radius of the ellipse in the vertical direction
+   * @param e1x
+   *     E(eta1) x coordinate of the starting point of the arc
+   * @param e1y
+   *     E(eta2) y coordinate of the starting point of the arc
+   * @param theta
+   *     The angle that the ellipse bounding rectangle makes with horizontal plane
+   * @param start
+   *     The start angle of the arc on the ellipse
+   * @param sweep
+   *     The angle (positive or negative) of the sweep of the arc on the ellipse
+   */
+  private static void arcToBezier(PathSink p,
+                                  float[] current,
+                                  double cx,
+                                  double cy,
+                                  double a,
+                                  double b,
+                                  double e1x,
+                                  double e1y,
+                                  double theta,
+                                  double start,
+                                  double sweep) {
+    // Taken from equations at: http://spaceroots.org/documents/ellipse/node8.html
+    // and http://www.spaceroots.org/documents/ellipse/node22.html
+
+    // Maximum of 45 degrees per cubic Bezier segment
+    int numSegments = (int) Math.ceil(Math.abs(sweep * 4 / Math.PI));
+
+    double eta1 = start;
+    double cosTheta = Math.cos(theta);
+    double sinTheta = Math.sin(theta);
+    double cosEta1 = Math.cos(eta1);
+    double sinEta1 = Math.sin(eta1);
+    double ep1x = (-a * cosTheta * sinEta1) - (b * sinTheta * cosEta1);
+    double ep1y = (-a * sinTheta * sinEta1) + (b * cosTheta * cosEta1);
+
+    double anglePerSegment = sweep / numSegments;
+    for (int i = 0; i < numSegments; i++) {
+      double eta2 = eta1 + anglePerSegment;
+      double sinEta2 = Math.sin(eta2);
+      double cosEta2 = Math.cos(eta2);
+      double e2x = cx + (a * cosTheta * cosEta2) - (b * sinTheta * sinEta2);
+      double e2y = cy + (a * sinTheta * cosEta2) + (b * cosTheta * sinEta2);
+      double ep2x = -a * cosTheta * sinEta2 - b * sinTheta * cosEta2;
+      double ep2y = -a * sinTheta * sinEta2 + b * cosTheta * cosEta2;
+      double tanDiff2 = Math.tan((eta2 - eta1) / 2);
+      double alpha =
+          Math.sin(eta2 - eta1) * (Math.sqrt(4 + (3 * tanDiff2 * tanDiff2)) - 1) / 3;
+      double q1x = e1x + alpha * ep1x;
+      double q1y = e1y + alpha * ep1y;
+      double q2x = e2x - alpha * ep2x;
+      double q2y = e2y - alpha * ep2y;
+
+      // Adding this no-op call to workaround a proguard related issue.
+      // This used to be Path#rLineTo(0, 0) and is kept so the resulting paths don't change.
+      p.lineTo(current[6], current[7]);
+
+      p.cubicTo((float) q1x,
+          (float) q1y,
+          (float) q2x,
+          (float) q2y,
+          current[6] = (float) e2x,
+          current[7] = (float) e2y);
+      eta1 = eta2;
+      e1x = e2x;
+      e1y = e2y;
+      ep1x = ep2x;
+      ep1y = ep2y;
+    }
+  }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.path;
+
+/**
+ * A {@link PathSink} that reduces the number of segments of a path before passing it to another sink. Curves are
+ * {@link PathFlattener flattened} and the points of every contour are thinned out with the Douglas-Peucker algorithm,
+ * so the result is made of lines only and never deviates from the original path by more than the tolerance.
+ *
+ * <p>Call {@link #finish()} after the last segment to emit the last contour.</p>
+ */
+public final class PathSimplifier implements PathSink {
+
+  private final PathSink mTarget;
+  private final float mTolerance;
+  private final PathFlattener mFlattener;
+
+  private float[] mPoints = new float[64];
+  private int mPointCount;
+  private boolean[] mKeep = new boolean[32];
+  private int[] mStack = new int[32];
+  private float mStartX;
+  private float mStartY;
+  private int mInputSegmentCount;
+  private int mOutputSegmentCount;
+
+  /**
+   * @param target
+   *     The sink that receives the simplified path.
+   * @param tolerance
+   *     The maximum distance between the original and the simplified path, in path units.
+   */
+  public PathSimplifier(PathSink target, float tolerance) {
+    if (!(tolerance > 0)) {
+      throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+    }
+    mTarget = target;
+    mTolerance = tolerance;
+    // Flattening and thinning each use half of the tolerance.
+    mFlattener = new PathFlattener(new Points(), tolerance / 2);
+  }
+
+  @Override public void moveTo(float x, float y) {
+    mFlattener.moveTo(x, y);
+  }
+
+  @Override public void lineTo(float x, float y) {
+    mInputSegmentCount++;
+    mFlattener.lineTo(x, y);
+  }
+
+  @Override public void quadTo(float x1, float y1, float x2, float y2) {
+    mInputSegmentCount++;
+    mFlattener.quadTo(x1, y1, x2, y2);
+  }
+
+  @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+    mInputSegmentCount++;
+    mFlattener.cubicTo(x1, y1, x2, y2, x3, y3);
+  }
+
+  @Override public void close() {
+    flush(true);
+  }
+
+  /**
+   * Emit the last contour. Call this after the last segment was added.
+   */
+  public void finish() {
+    flush(false);
+  }
+
+  /**
+   * @return the number of lines and curves that were added.
+   */
+  public int getInputSegmentCount() {
+    return mInputSegmentCount;
+  }
+
+  /**
+   * @return the number of lines that were passed to the target.
+   */
+  public int getOutputSegmentCount() {
+    return mOutputSegmentCount;
+  }
+
+  private void addPoint(float x, float y) {
+    if (mPointCount * 2 == mPoints.length) {
+      float[] points = new float[mPoints.length * 2];
+      System.arraycopy(mPoints, 0, points, 0, mPoints.length);
+      mPoints = points;
+    }
+    mPoints[mPointCount * 2] = x;
+    mPoints[mPointCount * 2 + 1] = y;
+    mPointCount++;
+  }
+
+  private void flush(boolean closed) {
+    int n = mPointCount;
+    if (n == 0) {
+      return;
+    }
+    if (n > 2) {
+      markPoints(n);
+    }
+    float[] points = mPoints;
+    mTarget.moveTo(points[0], points[1]);
+    for (int i = 1; i < n; i++) {
+      if (n <= 2 || mKeep[i]) {
+        mTarget.lineTo(points[i * 2], points[i * 2 + 1]);
+        mOutputSegmentCount++;
+      }
+    }
+    if (closed) {
+      mTarget.close();
+    }
+    mPointCount = 0;
+  }
+
+  /**
+   * Mark the points to keep with the Douglas-Peucker algorithm. An explicit stack is used instead of recursion so that
+   * long contours can't overflow the call stack.
+   */
+  private void markPoints(int n) {
+    if (mKeep.length < n) {
+      mKeep = new boolean[Math.max(n, mKeep.length * 2)];
+    }
+    boolean[] keep = mKeep;
+    for (int i = 1; i < n - 1; i++) {
+      keep[i] = false;
+    }
+    keep[0] = true;
+    keep[n - 1] = true;
+
+    float toleranceSquared = mTolerance / 2 * (mTolerance / 2);
+    int stackSize = push(0, 0, n - 1);
+    while (stackSize > 0) {
+      int last = mStack[--stackSize];
+      int first = mStack[--stackSize];
+      float maxDistance = -1;
+      int index = -1;
+      for (int i = first + 1; i < last; i++) {
+        float distance = distanceToSegmentSquared(i, first, last);
+        if (distance > maxDistance) {
+          maxDistance = distance;
+          index = i;
+        }
+      }
+      if (index >= 0 && maxDistance > toleranceSquared) {
+        keep[index] = true;
+        stackSize = push(stackSize, first, index);
+        stackSize = push(stackSize, index, last);
+      }
+    }
+  }
+
+  private int push(int stackSize, int first, int last) {
+    if (stackSize + 2 > mStack.length) {
+      int[] stack = new int[mStack.length * 2];
+      System.arraycopy(mStack, 0, stack, 0, stackSize);
+      mStack = stack;
+    }
+    mStack[stackSize] = first;
+    mStack[stackSize + 1] = last;
+    return stackSize + 2;
+  }
+
+  private float distanceToSegmentSquared(int point, int first, int last) {
+    float[] points = mPoints;
+    float px = points[point * 2];
+    float py = points[point * 2 + 1];
+    float ax = points[first * 2];
+    float ay = points[first * 2 + 1];
+    float dx = points[last * 2] - ax;
+    float dy = points[last * 2 + 1] - ay;
+    float lengthSquared = dx * dx + dy * dy;
+    float t = lengthSquared > 0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSquared : 0;
+    t = Math.max(0, Math.min(1, t));
+    float x = ax + t * dx - px;
+    float y = ay + t * dy - py;
+    return x * x + y * y;
+  }
+
+  /** Receives the flattened path. */
+  private final class Points implements PathSink {
+
+    @Override public void moveTo(float x, float y) {
+      flush(false);
+      mStartX = x;
+      mStartY = y;
+      addPoint(x, y);
+    }
+
+    @Override public void lineTo(float x, float y) {
+      if (mPointCount == 0) {
+        // A segment after a close starts at the start of the previous contour.
+        addPoint(mStartX, mStartY);
+      }
+      addPoint(x, y);
+    }
+
+    @Override public void quadTo(float x1, float y1, float x2, float y2) {
+      throw new IllegalStateException("Curves are flattened");
+    }
+
+    @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+      throw new IllegalStateException("Curves are flattened");
+    }
+
+    @Override public void close() {
+    }
+  }
+
+}
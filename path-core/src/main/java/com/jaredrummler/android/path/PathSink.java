@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.path;
+
+/**
+ * Receives the segments of a path while path data is parsed. Commands are normalized before they are passed to
+ * the sink: all coordinates are absolute, horizontal, vertical and smooth curves are expanded, and arcs are
+ * converted to cubic Bézier curves.
+ */
+public interface PathSink {
+
+  void moveTo(float x, float y);
+
+  void lineTo(float x, float y);
+
+  void quadTo(float x1, float y1, float x2, float y2);
+
+  void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3);
+
+  void close();
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.jaredrummler.android.path;
+
+/**
+ * Splits SVG path data into commands and their floats. This has no dependency on the Android framework.
+ */
+public final class PathTokenizer {
+
+  private PathTokenizer() {
+  }
+
+  /**
+   * Split the path data into commands and pass each command with its floats to the handler.
+   *
+   * @param pathData
+   *     The string representing a path, the same as "d" string in svg file.
+   * @param handler
+   *     The handler that receives the commands.
+   */
+  public static void tokenize(CharSequence pathData, CommandHandler handler) {
+    int start = 0;
+    int end = 1;
+    int length = pathData.length();
+
+    FloatScanner scanner = new FloatScanner();
+    while (end < length) {
+      end = nextStart(pathData, end);
+      // Trim the command the same way String#trim() does, without creating a substring.
+      int first = start;
+      int last = end;
+      while (first < last && pathData.charAt(first) <= ' ') {
+        first++;
+      }
+      while (last > first && pathData.charAt(last - 1) <= ' ') {
+        last--;
+      }
+      if (first < last) {
+        int count = scanner.scan(pathData, first, last);
+        handler.onCommand(pathData.charAt(first), scanner.mValues, count);
+      }
+
+      start = end;
+      end++;
+    }
+    if ((end - start) == 1 && start < length) {
+      handler.onCommand(pathData.charAt(start), scanner.mValues, 0);
+    }
+  }
+
+  private static int nextStart(CharSequence s, int end) {
+    char c;
+
+    while (end < s.length()) {
+      c = s.charAt(end);
+      // Note that 'e' or 'E' are not valid path commands, but could be
+      // used for floating point numbers' scientific notation.
+      // Therefore, when searching for next command, we should ignore 'e'
+      // and 'E'.
+      if ((((c - 'A') * (c - 'Z') <= 0) || ((c - 'a') * (c - 'z') <= 0))
+          && c != 'e' && c != 'E') {
+        return end;
+      }
+      end++;
+    }
+    return end;
+  }
+
+  /**
+   * Receives the commands of the path data.
+   */
+  public interface CommandHandler {
+
+    /**
+     * @param cmd
+     *     the command
+     * @param val
+     *     the floats of the command. Only valid until this method returns.
+     * @param count
+     *     the number of floats in {@code val}
+     */
+    void onCommand(char cmd, float[] val, int count);
+  }
+
+  /**
+   * Reads the floats of a command directly from the path data into a shared, growable buffer. Numbers are converted
+   * without creating substrings. Only numbers that can't be converted exactly fall back to
+   * {@link Float#parseFloat(String)}, so the results are identical to parsing every number with it.
+   */
+  private static final class FloatScanner {
+
+    /** Powers of ten that are exactly representable as a float. */
+    private static final float[] POWERS_OF_TEN = {
+        1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    /** The largest integer below which every integer is exactly representable as a float. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 24;
+
+    float[] mValues = new float[16];
+
+    // The position of the next separator and whether the next float starts with a '-' or a '.'.
+    private int mEndPosition;
+    private boolean mEndWithNegOrDot;
+
+    /**
+     * Parse the floats of the command in {@code s} between {@code first} and {@code last}.
+     * This is an optimized version of parseFloat(s.split(",|\\s")).
+     *
+     * @param s
+     *     the path data
+     * @param first
+     *     the position of the command character
+     * @param last
+     *     the end of the command, exclusive
+     * @return the number of floats stored in {@link #mValues}
+     */
+    int scan(CharSequence s, int first, int last) {
+      char cmd = s.charAt(first);
+      if (cmd == 'z' || cmd == 'Z') {
+        return 0;
+      }
+      int count = 0;
+      int startPosition = first + 1;
+      int endPosition;
+
+      // The startPosition should always be the first character of the
+      // current number, and endPosition is the character after the current
+      // number.
+      while (startPosition < last) {
+        extract(s, startPosition, last);
+        endPosition = mEndPosition;
+
+        if (startPosition < endPosition) {
+          if (count == mValues.length) {
+            float[] values = new float[count * 2];
+            System.arraycopy(mValues, 0, values, 0, count);
+            mValues = values;
+          }
+          mValues[count++] = readFloat(s, startPosition, endPosition, first, last);
+        }
+
+        if (mEndWithNegOrDot) {
+          // Keep the '-' or '.' sign with next number.
+          startPosition = endPosition;
+        } else {
+          startPosition = endPosition + 1;
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Calculate the position of the next comma or space or negative sign
+     *
+     * @param s
+     *     the string to search
+     * @param start
+     *     the position to start searching
+     * @param end
+     *     the position to stop searching
+     */
+    private void extract(CharSequence s, int start, int end) {
+      // Now looking for ' ', ',', '.' or '-' from the start.
+      int currentIndex = start;
+      boolean foundSeparator = false;
+      mEndWithNegOrDot = false;
+      boolean secondDot = false;
+      boolean isExponential = false;
+      for (; currentIndex < end; currentIndex++) {
+        boolean isPrevExponential = isExponential;
+        isExponential = false;
+        char currentChar = s.charAt(currentIndex);
+        switch (currentChar) {
+          case ' ':
+          case ',':
+            foundSeparator = true;
+            break;
+          case '-':
+            // The negative sign following a 'e' or 'E' is not a separator.
+            if (currentIndex != start && !isPrevExponential) {
+              foundSeparator = true;
+              mEndWithNegOrDot = true;
+            }
+            break;
+          case '.':
+            if (!secondDot) {
+              secondDot = true;
+            } else {
+              // This is the second dot, and it is considered as a separator.
+              foundSeparator = true;
+              mEndWithNegOrDot = true;
+            }
+            break;
+          case 'e':
+          case 'E':
+            isExponential = true;
+            break;
+        }
+        if (foundSeparator) {
+          break;
+        }
+      }
+      // When there is nothing found, then we put the end position to the end
+      // of the string.
+      mEndPosition = currentIndex;
+    }
+
+    /**
+     * Read the decimal number between {@code start} and {@code end}. Numbers with at most 24 bits of significant
+     * digits and a decimal exponent of at most 10 are computed with a single float multiplication or division of two
+     * exactly representable values, which is correctly rounded just like {@link Float#parseFloat(String)}.
+     */
+    private static float readFloat(CharSequence s, int start, int end, int commandStart, int commandEnd) {
+      int numberEnd = end;
+      int i = start;
+      // Float#parseFloat trims whitespace
+      while (i < end && s.charAt(i) <= ' ') {
+        i++;
+      }
+      while (end > i && s.charAt(end - 1) <= ' ') {
+        end--;
+      }
+      boolean negative = false;
+      if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+        negative = s.charAt(i) == '-';
+        i++;
+      }
+      long mantissa = 0;
+      int digits = 0;
+      int exponent = 0;
+      boolean exact = true;
+      char c;
+      for (; i < end && (c = s.charAt(i)) >= '0' && c <= '9'; i++) {
+        mantissa = mantissa * 10 + (c - '0');
+        digits++;
+        exact &= mantissa <= MAX_EXACT_MANTISSA;
+      }
+      if (i < end && s.charAt(i) == '.') {
+        for (i++; i < end && (c = s.charAt(i)) >= '0' && c <= '9'; i++) {
+          mantissa = mantissa * 10 + (c - '0');
+          digits++;
+          exponent--;
+          exact &= mantissa <= MAX_EXACT_MANTISSA;
+        }
+      }
+      if (digits > 0 && i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+        i++;
+        boolean negativeExponent = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+          negativeExponent = s.charAt(i) == '-';
+          i++;
+        }
+        int exponentDigits = 0;
+        int explicitExponent = 0;
+        for (; i < end && (c = s.charAt(i)) >= '0' && c <= '9'; i++) {
+          if (explicitExponent < 1000) {
+            explicitExponent = explicitExponent * 10 + (c - '0');
+          }
+          exponentDigits++;
+        }
+        if (exponentDigits == 0) {
+          exact = false;
+        }
+        exponent += negativeExponent ? -explicitExponent : explicitExponent;
+      }
+      if (exact && digits > 0 && i == end && exponent >= -10 && exponent <= 10) {
+        float value = mantissa;
+        if (exponent < 0) {
+          value /= POWERS_OF_TEN[-exponent];
+        } else if (exponent > 0) {
+          value *= POWERS_OF_TEN[exponent];
+        }
+        return negative ? -value : value;
+      }
+      try {
+        return Float.parseFloat(s.subSequence(start, numberEnd).toString());
+      } catch (NumberFormatException e) {
+        throw new RuntimeException("error in parsing \"" + s.subSequence(commandStart, commandEnd) + "\"", e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.jaredrummler.android.path;
+
+/**
+ * A {@link PathSink} that applies an affine transformation to every point before passing it to another sink. The
+ * matrix is given in the order of the SVG {@code matrix(a b c d e f)} transform, which maps {@code (x, y)} to
+ * {@code (a * x + c * y + e, b * x + d * y + f)}.
+ */
+public final class TransformSink implements PathSink {
+
+  private final PathSink mTarget;
+  private final float mA;
+  private final float mB;
+  private final float mC;
+  private final float mD;
+  private final float mE;
+  private final float mF;
+
+  /**
+   * @param target
+   *     The sink that receives the transformed path.
+   * @param matrix
+   *     The six values {@code a, b, c, d, e, f} of the transformation.
+   */
+  public TransformSink(PathSink target, float[] matrix) {
+    mTarget = target;
+    mA = matrix[0];
+    mB = matrix[1];
+    mC = matrix[2];
+    mD = matrix[3];
+    mE = matrix[4];
+    mF = matrix[5];
+  }
+
+  @Override public void moveTo(float x, float y) {
+    mTarget.moveTo(x(x, y), y(x, y));
+  }
+
+  @Override public void lineTo(float x, float y) {
+    mTarget.lineTo(x(x, y), y(x, y));
+  }
+
+  @Override public void quadTo(float x1, float y1, float x2, float y2) {
+    mTarget.quadTo(x(x1, y1), y(x1, y1), x(x2, y2), y(x2, y2));
+  }
+
+  @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+    mTarget.cubicTo(x(x1, y1), y(x1, y1), x(x2, y2), y(x2, y2), x(x3, y3), y(x3, y3));
+  }
+
+  @Override public void close() {
+    mTarget.close();
+  }
+
+  private float x(float x, float y) {
+    return mA * x + mC * y + mE;
+  }
+
+  private float y(float x, float y) {
+    return mB * x + mD * y + mF;
+  }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.path;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PathFlattenerTest {
+
+  private static final float TOLERANCE = 0.25f;
+
+  @Test public void linesArePassedThrough() {
+    Polyline polyline = flatten("M0 0L10 0L10 10", TOLERANCE);
+    assertEquals(3, polyline.size());
+  }
+
+  @Test public void straightCubicIsOneSegment() {
+    Polyline polyline = flatten("M0 0C1 0 2 0 3 0", TOLERANCE);
+    assertEquals(2, polyline.size());
+  }
+
+  @Test public void cubicThatOvershootsItsChordIsSubdivided() {
+    // Both control points are on the line through the chord, but far beyond its ends.
+    Polyline polyline = flatten("M0 0C100 0 -100 0 1 0", TOLERANCE);
+    assertTrue(polyline.size() > 2);
+    assertWithinTolerance(polyline, 0, 0, 100, 0, -100, 0, 1, 0, TOLERANCE);
+  }
+
+  @Test public void quadThatOvershootsItsChordIsSubdivided() {
+    Polyline polyline = flatten("M0 0Q100 0 1 0", TOLERANCE);
+    assertTrue(polyline.size() > 2);
+  }
+
+  @Test public void curvesStayWithinTolerance() {
+    float[][] cubics = {
+        {0, 0, 0, 100, 100, 100, 100, 0},
+        {0, 0, 100, 100, 0, 100, 100, 0},
+        {0, 0, 300, 50, -200, 50, 100, 0},
+        {10, 10, 10, 10, 10, 10, 10, 10},
+        {0, 0, 50, 80, 50, 80, 0, 0},
+    };
+    for (float tolerance : new float[]{0.01f, 0.25f, 4f}) {
+      for (float[] c : cubics) {
+        Polyline polyline = new Polyline();
+        PathFlattener flattener = new PathFlattener(polyline, tolerance);
+        flattener.moveTo(c[0], c[1]);
+        flattener.cubicTo(c[2], c[3], c[4], c[5], c[6], c[7]);
+        assertWithinTolerance(polyline, c[0], c[1], c[2], c[3], c[4], c[5], c[6], c[7], tolerance);
+        assertEquals(c[6], polyline.x(polyline.size() - 1), 0);
+        assertEquals(c[7], polyline.y(polyline.size() - 1), 0);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void toleranceMustBePositive() {
+    new PathFlattener(new Polyline(), 0);
+  }
+
+  /**
+   * Sample the cubic densely and check that every sample is within the tolerance of the polyline.
+   */
+  private static void assertWithinTolerance(Polyline polyline, float x0, float y0, float x1, float y1, float x2,
+                                            float y2, float x3, float y3, float tolerance) {
+    for (int i = 0; i <= 1000; i++) {
+      double t = i / 1000.0;
+      double mt = 1 - t;
+      double x = mt * mt * mt * x0 + 3 * mt * mt * t * x1 + 3 * mt * t * t * x2 + t * t * t * x3;
+      double y = mt * mt * mt * y0 + 3 * mt * mt * t * y1 + 3 * mt * t * t * y2 + t * t * t * y3;
+      double distance = polyline.distanceTo(x, y);
+      // Allow for float rounding in the subdivision.
+      assertTrue("t=" + t + " is " + distance + " from the polyline", distance <= tolerance * 1.001 + 1e-4);
+    }
+  }
+
+  private static Polyline flatten(String pathData, float tolerance) {
+    Polyline polyline = new Polyline();
+    PathNormalizer.parse(pathData, new PathFlattener(polyline, tolerance));
+    return polyline;
+  }
+
+  /** Collects the points of a flattened path with a single contour. */
+  private static final class Polyline implements PathSink {
+
+    private final List<float[]> mPoints = new ArrayList<>();
+
+    int size() {
+      return mPoints.size();
+    }
+
+    float x(int index) {
+      return mPoints.get(index)[0];
+    }
+
+    float y(int index) {
+      return mPoints.get(index)[1];
+    }
+
+    double distanceTo(double px, double py) {
+      double min = Double.MAX_VALUE;
+      for (int i = 1; i < mPoints.size(); i++) {
+        double x0 = x(i - 1);
+        double y0 = y(i - 1);
+        double dx = x(i) - x0;
+        double dy = y(i) - y0;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, ((px - x0) * dx + (py - y0) * dy) / lengthSquared)) : 0;
+        min = Math.min(min, Math.hypot(px - (x0 + t * dx), py - (y0 + t * dy)));
+      }
+      return min;
+    }
+
+    @Override public void moveTo(float x, float y) {
+      mPoints.add(new float[]{x, y});
+    }
+
+    @Override public void lineTo(float x, float y) {
+      mPoints.add(new float[]{x, y});
+    }
+
+    @Override public void quadTo(float x1, float y1, float x2, float y2) {
+      throw new AssertionError("Curves are flattened");
+    }
+
+    @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+      throw new AssertionError("Curves are flattened");
+    }
+
+    @Override public void close() {
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.path;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares measured lengths with exact lengths or with lengths integrated numerically in double precision, the same
+ * values {@code android.graphics.PathMeasure} approximates.
+ */
+public class PathMetricsTest {
+
+  @Test public void linesHaveExactLengths() {
+    PathMetrics metrics = PathMetrics.measure("M0 0L3 4L3 10", PathMetrics.DEFAULT_TOLERANCE, false);
+    assertEquals(1, metrics.getContourCount());
+    assertEquals(11, metrics.getContourLength(0), 1e-5);
+    assertFalse(metrics.isContourClosed(0));
+  }
+
+  @Test public void forceClosedAddsTheClosingSegment() {
+    PathMetrics open = PathMetrics.measure("M0 0H10V10", PathMetrics.DEFAULT_TOLERANCE, false);
+    PathMetrics closed = PathMetrics.measure("M0 0H10V10", PathMetrics.DEFAULT_TOLERANCE, true);
+    assertEquals(20, open.getContourLength(0), 1e-5);
+    assertEquals(20 + Math.sqrt(200), closed.getContourLength(0), 1e-4);
+    assertTrue(closed.isContourClosed(0));
+  }
+
+  @Test public void closedLengthsIncludeTheClosingSegment() {
+    PathMetrics metrics = PathMetrics.measure("M0 0H10V10 M20 0H30V10Z", PathMetrics.DEFAULT_TOLERANCE, false);
+    assertEquals(20, metrics.getContourLength(0), 1e-5);
+    assertEquals(20 + Math.sqrt(200), metrics.getClosedContourLength(0), 1e-4);
+    assertEquals(20 + Math.sqrt(200), metrics.getContourLength(1), 1e-4);
+    assertEquals(20 + Math.sqrt(200), metrics.getClosedContourLength(1), 1e-4);
+  }
+
+  @Test public void boundsIncludeEveryPointMovedTo() {
+    float[] bounds = new float[4];
+    PathMetrics.measure("M0 0H10 M50 -20", PathMetrics.DEFAULT_TOLERANCE, false).getBounds(bounds);
+    assertEquals(0, bounds[0], 0);
+    assertEquals(-20, bounds[1], 0);
+    assertEquals(50, bounds[2], 0);
+    assertEquals(0, bounds[3], 0);
+  }
+
+  @Test public void contoursAreCountedLikePathMeasure() {
+    PathMetrics metrics = PathMetrics.measure("M0 0H10Z M5 5 M20 20H30 M40 40", PathMetrics.DEFAULT_TOLERANCE, false);
+    // The empty contours at (5, 5) and (40, 40) are skipped.
+    assertEquals(2, metrics.getContourCount());
+    assertEquals(20, metrics.getContourLength(0), 1e-5);
+    assertTrue(metrics.isContourClosed(0));
+    assertEquals(10, metrics.getContourLength(1), 1e-5);
+    assertEquals(30, metrics.getTotalLength(), 1e-5);
+    assertEquals(20, metrics.getMaxContourLength(), 1e-5);
+  }
+
+  @Test public void circleOfArcsHasTheLengthOfACircle() {
+    String circle = "M200 100A100 100 0 1 1 0 100A100 100 0 1 1 200 100Z";
+    double circumference = 2 * Math.PI * 100;
+    assertEquals(circumference, PathMetrics.measure(circle, PathMetrics.DEFAULT_TOLERANCE, false)
+        .getContourLength(0), circumference * 1e-3);
+    assertEquals(circumference, PathMetrics.measure(circle, 0.01f, false).getContourLength(0), circumference * 1e-4);
+  }
+
+  @Test public void quadHasItsClosedFormLength() {
+    // The parabola y = x^2 / 100 from x = -100 to 100.
+    double exact = 2 * (50 * Math.sqrt(5) + 25 * Math.log(2 + Math.sqrt(5)));
+    float length = PathMetrics.measure("M-100 100Q0 -100 100 100", 0.01f, false).getContourLength(0);
+    assertEquals(exact, length, exact * 1e-4);
+  }
+
+  @Test public void cubicsMatchNumericalIntegration() {
+    float[][] cubics = {
+        {0, 0, 100, 0, -100, 0, 1, 0},
+        {0, 0, 0, 100, 100, 100, 100, 0},
+        {0, 0, 100, 100, 0, 100, 100, 0},
+        {10, 20, 300, -50, -200, 150, 90, 60},
+    };
+    for (float[] c : cubics) {
+      String pathData = "M" + c[0] + " " + c[1] + "C" + c[2] + " " + c[3] + " " + c[4] + " " + c[5] + " " + c[6] + " "
+          + c[7];
+      double expected = cubicLength(c);
+      assertEquals(pathData, expected, PathMetrics.measure(pathData, PathMetrics.DEFAULT_TOLERANCE, false)
+          .getContourLength(0), expected * 2e-3);
+      assertEquals(pathData, expected, PathMetrics.measure(pathData, 0.01f, false).getContourLength(0),
+          expected * 1e-4);
+    }
+  }
+
+  @Test public void overshootingCubicIsMeasuredAlongTheCurve() {
+    float length = PathMetrics.measure("M0 0C100 0 -100 0 1 0", PathMetrics.DEFAULT_TOLERANCE, false)
+        .getContourLength(0);
+    assertEquals(cubicLength(new float[]{0, 0, 100, 0, -100, 0, 1, 0}), length, 0.5);
+    float[] bounds = new float[4];
+    PathMetrics.measure("M0 0C100 0 -100 0 1 0", PathMetrics.DEFAULT_TOLERANCE, false).getBounds(bounds);
+    assertTrue(bounds[0] < -28);
+    assertTrue(bounds[2] > 28);
+  }
+
+  /**
+   * @return the length of a cubic, integrated numerically in double precision.
+   */
+  private static double cubicLength(float[] c) {
+    int steps = 200000;
+    double length = 0;
+    double lastX = c[0];
+    double lastY = c[1];
+    for (int i = 1; i <= steps; i++) {
+      double t = i / (double) steps;
+      double mt = 1 - t;
+      double x = mt * mt * mt * c[0] + 3 * mt * mt * t * c[2] + 3 * mt * t * t * c[4] + t * t * t * c[6];
+      double y = mt * mt * mt * c[1] + 3 * mt * mt * t * c[3] + 3 * mt * t * t * c[5] + t * t * t * c[7];
+      length += Math.hypot(x - lastX, y - lastY);
+      lastX = x;
+      lastY = y;
+    }
+    return length;
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.path;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link PathNormalizer} reports degenerate arcs to its {@link PathNormalizer.WarningListener}.
+ */
+public class PathNormalizerTest {
+
+  @Test public void coincidentArcPointsAreReported() {
+    List<String> warnings = normalize("M10,10 A5,5 0 0 1 10,10");
+    assertEquals(1, warnings.size());
+    assertEquals("Points are coincident", warnings.get(0));
+  }
+
+  @Test public void tooSmallArcRadiiAreReported() {
+    List<String> warnings = normalize("M0,0 A1,1 0 0 1 10,0");
+    assertEquals(1, warnings.size());
+    assertTrue(warnings.get(0).startsWith("Points are too far apart "));
+  }
+
+  @Test public void regularArcsAreNotReported() {
+    assertTrue(normalize("M0,0 A5,5 0 0 1 10,0 a5,5 0 1 0 -10,0").isEmpty());
+  }
+
+  private static List<String> normalize(String pathData) {
+    final List<String> warnings = new ArrayList<>();
+    PathNormalizer normalizer = new PathNormalizer(new PathSink() {
+      @Override public void moveTo(float x, float y) {
+      }
+
+      @Override public void lineTo(float x, float y) {
+      }
+
+      @Override public void quadTo(float x1, float y1, float x2, float y2) {
+      }
+
+      @Override public void cubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+      }
+
+      @Override public void close() {
+      }
+    });
+    normalizer.setWarningListener(new PathNormalizer.WarningListener() {
+      @Override public void onWarning(String message) {
+        warnings.add(message);
+      }
+    });
+    PathTokenizer.tokenize(pathData, normalizer);
+    return warnings;
+  }
+}
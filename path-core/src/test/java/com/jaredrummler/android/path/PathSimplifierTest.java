@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.path;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PathSimplifierTest {
+
+  @Test public void collinearPointsAreRemoved() {
+    PathDataWriter writer = new PathDataWriter();
+    PathSimplifier simplifier = new PathSimplifier(writer, 1);
+    PathNormalizer.parse("M0 0L10 0.1L20 0L30 0.1L40 0", simplifier);
+    simplifier.finish();
+    assertEquals("M0,0L40,0", writer.toString());
+    assertEquals(4, simplifier.getInputSegmentCount());
+    assertEquals(1, simplifier.getOutputSegmentCount());
+  }
+
+  @Test public void cornersAreKept() {
+    PathDataWriter writer = new PathDataWriter();
+    PathSimplifier simplifier = new PathSimplifier(writer, 1);
+    PathNormalizer.parse("M0 0L10 0L10 10L0 10Z", simplifier);
+    simplifier.finish();
+    // The normalizer moves back to the start of a contour after closing it, like Android's path parser.
+    assertEquals("M0,0L10,0L10,10L0,10ZM0,0", writer.toString());
+  }
+
+  @Test public void cubicThatOvershootsItsChordKeepsItsExtent() {
+    float[][] cubics = {
+        {0, 0, 100, 0, -100, 0, 1, 0},
+        {0, 0, 0, 100, 100, 100, 100, 0},
+        {10, 20, 300, -50, -200, 150, 90, 60},
+    };
+    for (float tolerance : new float[]{0.5f, 1, 4}) {
+      for (float[] c : cubics) {
+        PathMetrics bounds = new PathMetrics(0.001f, false);
+        PathSimplifier simplifier = new PathSimplifier(bounds, tolerance);
+        simplifier.moveTo(c[0], c[1]);
+        simplifier.cubicTo(c[2], c[3], c[4], c[5], c[6], c[7]);
+        simplifier.finish();
+        bounds.finish();
+        float[] simplified = new float[4];
+        bounds.getBounds(simplified);
+        double[] exact = cubicBounds(c);
+        for (int i = 0; i < 4; i++) {
+          assertEquals("tolerance " + tolerance + " bound " + i, exact[i], simplified[i], tolerance);
+        }
+      }
+    }
+  }
+
+  @Test public void overshootingCubicSpansTheCurve() {
+    PathMetrics bounds = new PathMetrics(0.001f, false);
+    PathSimplifier simplifier = new PathSimplifier(bounds, 1);
+    PathNormalizer.parse("M0 0C100 0 -100 0 1 0", simplifier);
+    simplifier.finish();
+    bounds.finish();
+    float[] b = new float[4];
+    bounds.getBounds(b);
+    // The curve spans x from about -28.4 to 28.9.
+    assertTrue("left " + b[0], b[0] < -27.4f);
+    assertTrue("right " + b[2], b[2] > 27.9f);
+  }
+
+  /**
+   * @return the left, top, right and bottom of the curve, found by dense sampling.
+   */
+  private static double[] cubicBounds(float[] c) {
+    double[] bounds = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+    for (int i = 0; i <= 100000; i++) {
+      double t = i / 100000.0;
+      double mt = 1 - t;
+      double x = mt * mt * mt * c[0] + 3 * mt * mt * t * c[2] + 3 * mt * t * t * c[4] + t * t * t * c[6];
+      double y = mt * mt * mt * c[1] + 3 * mt * mt * t * c[3] + 3 * mt * t * t * c[5] + t * t * t * c[7];
+      bounds[0] = Math.min(bounds[0], x);
+      bounds[1] = Math.min(bounds[1], y);
+      bounds[2] = Math.max(bounds[2], x);
+      bounds[3] = Math.max(bounds[3], y);
+    }
+    return bounds;
+  }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.path;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link PathTokenizer} splits path data exactly like the substring and {@link Float#parseFloat(String)}
+ * based parser it replaced, down to the bits of every float and the message of every error.
+ */
+public class PathTokenizerTest {
+
+  private static final String CORPUS = "path-data-corpus.txt";
+
+  @Test public void corpusMatchesReferenceParser() throws IOException {
+    List<String> corpus = loadCorpus();
+    assertTrue(corpus.size() > 50);
+    for (String pathData : corpus) {
+      assertSameResult(pathData);
+    }
+  }
+
+  @Test public void fuzzedPathsMatchReferenceParser() {
+    Random random = new Random(20160101);
+    for (int i = 0; i < 20000; i++) {
+      StringBuilder sb = new StringBuilder();
+      int commands = 1 + random.nextInt(8);
+      for (int c = 0; c < commands; c++) {
+        sb.append("MmLlHhVvCcSsQqTtAaZz".charAt(random.nextInt(20)));
+        int numbers = random.nextInt(8);
+        for (int n = 0; n < numbers; n++) {
+          appendSeparator(sb, random);
+          appendNumber(sb, random);
+        }
+        if (random.nextInt(4) == 0) {
+          appendSeparator(sb, random);
+        }
+      }
+      assertSameResult(sb.toString());
+    }
+  }
+
+  @Test public void randomDecimalsMatchFloatParseFloat() {
+    Random random = new Random(42);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 200000; i++) {
+      sb.setLength(0);
+      sb.append('M');
+      appendNumber(sb, random);
+      assertSameResult(sb.toString());
+    }
+  }
+
+  private static void appendSeparator(StringBuilder sb, Random random) {
+    switch (random.nextInt(6)) {
+      case 0:
+        sb.append(',');
+        break;
+      case 1:
+        sb.append(' ');
+        break;
+      case 2:
+        sb.append(" , ");
+        break;
+      case 3:
+        sb.append('\t');
+        break;
+      default:
+        // No separator, so a sign or dot has to split the numbers.
+        break;
+    }
+  }
+
+  private static void appendNumber(StringBuilder sb, Random random) {
+    if (random.nextInt(5) == 0) {
+      sb.append(random.nextBoolean() ? '-' : '+');
+    }
+    int digits = random.nextInt(random.nextInt(4) == 0 ? 14 : 6);
+    for (int i = 0; i < digits; i++) {
+      sb.append((char) ('0' + random.nextInt(10)));
+    }
+    if (random.nextInt(3) > 0) {
+      sb.append('.');
+      int fraction = random.nextInt(random.nextInt(4) == 0 ? 14 : 5);
+      for (int i = 0; i < fraction; i++) {
+        sb.append((char) ('0' + random.nextInt(10)));
+      }
+    }
+    if (random.nextInt(6) == 0) {
+      sb.append(random.nextBoolean() ? 'e' : 'E');
+      int sign = random.nextInt(3);
+      if (sign == 1) {
+        sb.append('-');
+      } else if (sign == 2) {
+        sb.append('+');
+      }
+      int exponentDigits = random.nextInt(4);
+      for (int i = 0; i < exponentDigits; i++) {
+        sb.append((char) ('0' + random.nextInt(10)));
+      }
+    }
+  }
+
+  private static void assertSameResult(String pathData) {
+    String expected = describe(new Parser() {
+      @Override public void parse(String pathData, List<Object> out) {
+        ReferencePathParser.parse(pathData, out);
+      }
+    }, pathData);
+    String actual = describe(new Parser() {
+      @Override public void parse(String pathData, final List<Object> out) {
+        PathTokenizer.tokenize(pathData, new PathTokenizer.CommandHandler() {
+          @Override public void onCommand(char cmd, float[] val, int count) {
+            float[] params = new float[count];
+            System.arraycopy(val, 0, params, 0, count);
+            out.add(cmd);
+            out.add(params);
+          }
+        });
+      }
+    }, pathData);
+    assertEquals(pathData, expected, actual);
+  }
+
+  /**
+   * @return the commands and the bits of their floats, or the error, as a string.
+   */
+  private static String describe(Parser parser, String pathData) {
+    List<Object> out = new ArrayList<>();
+    try {
+      parser.parse(pathData, out);
+    } catch (RuntimeException e) {
+      // The original parser dropped the commands before an error, so only the error is compared.
+      return e.getClass().getName() + ": " + e.getMessage();
+    }
+    StringBuilder sb = new StringBuilder();
+    for (Object o : out) {
+      if (o instanceof Character) {
+        sb.append(o);
+      } else {
+        for (float f : (float[]) o) {
+          sb.append(' ').append(Integer.toHexString(Float.floatToRawIntBits(f)));
+        }
+        sb.append(';');
+      }
+    }
+    return sb.toString();
+  }
+
+  private static List<String> loadCorpus() throws IOException {
+    InputStream in = PathTokenizerTest.class.getResourceAsStream(CORPUS);
+    assertNotNull("Missing " + CORPUS, in);
+    List<String> corpus = new ArrayList<>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        corpus.add(line.replace("\\t", "\t").replace("\\r", "\r").replace("\\n", "\n"));
+      }
+    } finally {
+      reader.close();
+    }
+    return corpus;
+  }
+
+  private interface Parser {
+    void parse(String pathData, List<Object> out);
+  }
+
+}
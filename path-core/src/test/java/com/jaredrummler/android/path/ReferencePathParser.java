@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2016 Jared Rummler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+
+package com.jaredrummler.android.path;
+
+import java.util.List;
+
+/**
+ * The parser {@link PathTokenizer} replaced, which creates a substring for every command and number and parses each
+ * number with {@link Float#parseFloat(String)}. Only used to check that both split path data the same way.
+ */
+final class ReferencePathParser {
+
+  private ReferencePathParser() {
+  }
+
+  /**
+   * Add each command and its floats to {@code out}.
+   */
+  static void parse(String pathData, List<Object> out) {
+    int start = 0;
+    int end = 1;
+    while (end < pathData.length()) {
+      end = nextStart(pathData, end);
+      String s = pathData.substring(start, end).trim();
+      if (s.length() > 0) {
+        out.add(s.charAt(0));
+        out.add(getFloats(s));
+      }
+      start = end;
+      end++;
+    }
+    if ((end - start) == 1 && start < pathData.length()) {
+      out.add(pathData.charAt(start));
+      out.add(new float[0]);
+    }
+  }
+
+  private static int nextStart(String s, int end) {
+    char c;
+    while (end < s.length()) {
+      c = s.charAt(end);
+      if ((((c - 'A') * (c - 'Z') <= 0) || ((c - 'a') * (c - 'z') <= 0))
+          && c != 'e' && c != 'E') {
+        return end;
+      }
+      end++;
+    }
+    return end;
+  }
+
+  private static float[] getFloats(String s) {
+    if (s.charAt(0) == 'z' || s.charAt(0) == 'Z') {
+      return new float[0];
+    }
+    try {
+      float[] results = new float[s.length()];
+      int count = 0;
+      int startPosition = 1;
+      int endPosition;
+      int[] result = new int[2];
+      int totalLength = s.length();
+      while (startPosition < totalLength) {
+        extract(s, startPosition, result);
+        endPosition = result[0];
+        if (startPosition < endPosition) {
+          results[count++] = Float.parseFloat(s.substring(startPosition, endPosition));
+        }
+        if (result[1] != 0) {
+          startPosition = endPosition;
+        } else {
+          startPosition = endPosition + 1;
+        }
+      }
+      float[] floats = new float[count];
+      System.arraycopy(results, 0, floats, 0, count);
+      return floats;
+    } catch (NumberFormatException e) {
+      throw new RuntimeException("error in parsing \"" + s + "\"", e);
+    }
+  }
+
+  /**
+   * Store the position of the next separator in {@code result[0]} and whether the next number starts with a '-' or a
+   * '.' in {@code result[1]}.
+   */
+  private static void extract(String s, int start, int[] result) {
+    int currentIndex = start;
+    boolean foundSeparator = false;
+    result[1] = 0;
+    boolean secondDot = false;
+    boolean isExponential = false;
+    for (; currentIndex < s.length(); currentIndex++) {
+      boolean isPrevExponential = isExponential;
+      isExponential = false;
+      char currentChar = s.charAt(currentIndex);
+      switch (currentChar) {
+        case ' ':
+        case ',':
+          foundSeparator = true;
+          break;
+        case '-':
+          if (currentIndex != start && !isPrevExponential) {
+            foundSeparator = true;
+            result[1] = 1;
+          }
+          break;
+        case '.':
+          if (!secondDot) {
+            secondDot = true;
+          } else {
+            foundSeparator = true;
+            result[1] = 1;
+          }
+          break;
+        case 'e':
+        case 'E':
+          isExponential = true;
+          break;
+      }
+      if (foundSeparator) {
+        break;
+      }
+    }
+    result[0] = currentIndex;
+  }
+
+}